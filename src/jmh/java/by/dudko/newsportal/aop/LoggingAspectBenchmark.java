@@ -0,0 +1,66 @@
+package by.dudko.newsportal.aop;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+// run with ./gradlew jmh, the gc profiler reports allocated bytes per call
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingAspectBenchmark {
+    @Param({"INFO", "DEBUG"})
+    private String level;
+
+    private GreetingService target;
+    private GreetingService proxy;
+
+    @Setup
+    public void setUp() {
+        Logger logger = (Logger) LoggerFactory.getLogger(LoggingAspect.class);
+        logger.setLevel(Level.toLevel(level));
+        if (logger.isDebugEnabled()) {
+            logger.detachAndStopAllAppenders(); // measure message building, not console I/O
+            logger.setAdditive(false);
+        }
+        target = new GreetingService();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new LoggingAspect());
+        proxy = proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public String direct() {
+        return target.greet("user", 42L);
+    }
+
+    @Benchmark
+    public String advised() {
+        return proxy.greet("user", 42L);
+    }
+
+    @Service
+    public static class GreetingService {
+        public String greet(String name, long id) {
+            return name;
+        }
+    }
+}
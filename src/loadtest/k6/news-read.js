@@ -0,0 +1,44 @@
+// Read-heavy load test comparing the platform thread pool with the virtual-threads profile.
+//
+//   ./gradlew bootRun --args='--newsportal.web.response-cache.enabled=false'
+//   k6 run --summary-export=platform.json src/loadtest/k6/news-read.js
+//   ./gradlew bootRun --args='--spring.profiles.active=virtual-threads --newsportal.web.response-cache.enabled=false'
+//   k6 run --summary-export=virtual.json src/loadtest/k6/news-read.js
+//
+// The response cache is disabled so every request reaches the database. Compare http_reqs (throughput)
+// and http_req_duration p(99) of both summaries.
+import http from 'k6/http';
+import {check} from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const NEWS_COUNT = parseInt(__ENV.NEWS_COUNT || '20');
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                {duration: '30s', target: 200},
+                {duration: '1m', target: 1000}, // well past the default 200 tomcat threads
+                {duration: '2m', target: 1000},
+                {duration: '30s', target: 0},
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+export default function () {
+    const id = Math.floor(Math.random() * NEWS_COUNT) + 1;
+    const page = Math.floor(Math.random() * 5);
+    const responses = http.batch([
+        ['GET', `${BASE_URL}/api/news?page=${page}&size=20`, null, {tags: {name: 'news-list'}}],
+        ['GET', `${BASE_URL}/api/news/${id}?size=20`, null, {tags: {name: 'news-detail'}}],
+        ['GET', `${BASE_URL}/api/news/${id}/comments?size=20`, null, {tags: {name: 'news-comments'}}],
+    ]);
+    responses.forEach(response => check(response, {'status is 200': r => r.status === 200}));
+}
@@ -4,62 +4,76 @@ import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
 
-import java.text.MessageFormat;
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Aspect
 @Slf4j
 @Component
 public class LoggingAspect {
-    @Pointcut(value = "@within(org.springframework.stereotype.Service)")
-    public void isService() {
-    }
-
-    @Pointcut(value = "@within(org.springframework.web.bind.annotation.RestController)")
-    public void isRestController() {
-    }
+    private final Map<Method, MethodDescription> descriptions = new ConcurrentHashMap<>();
 
-    @Pointcut(value = "this(org.springframework.data.repository.Repository)")
-    public void isRepository() {
-    }
-
-    @Around("isRestController() || isService() || isRepository()")
+    @Around("by.dudko.newsportal.aop.Pointcuts.isApplicationLayer()")
     public Object aroundLogging(ProceedingJoinPoint joinPoint) throws Throwable {
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        String className = signature.getDeclaringType().getSimpleName();
-        String methodSignature = buildMethodSignature(signature);
-        Object[] args = joinPoint.getArgs();
-        String argsString = Arrays.toString(args);
-        log.debug("Class [{}], methodSignature [{}]. Invoked with args {}", className, methodSignature, argsString);
+        if (!log.isDebugEnabled()) { // hot path: no argument rendering unless something goes wrong
+            try {
+                return joinPoint.proceed();
+            } catch (Throwable ex) {
+                logException(joinPoint, ex);
+                throw ex;
+            }
+        }
+        MethodDescription description = describe(joinPoint);
+        String argsString = Arrays.toString(joinPoint.getArgs());
+        log.debug("Class [{}], methodSignature [{}]. Invoked with args {}",
+                description.className(), description.signature(), argsString);
         try {
-            Object result = joinPoint.proceed(args);
-            log.debug("Method [{}] returned value [{}]. Invoked with args {}", methodSignature, result, argsString);
+            Object result = joinPoint.proceed();
+            log.debug("Method [{}] returned value [{}]. Invoked with args {}",
+                    description.signature(), result, argsString);
             return result;
         } catch (Throwable ex) {
-            log.warn("Exception has been thrown during method execution [{}] from [{}] class." +
-                            " Invoked with args {}. Error message [{}]",
-                    methodSignature, className, argsString, ex.getMessage());
+            logException(joinPoint, ex);
             throw ex;
         }
     }
 
-    private String buildMethodSignature(MethodSignature methodSignature) {
-        String[] parameterNames = methodSignature.getParameterNames();
-        String methodName = methodSignature.getName();
-        if (parameterNames.length == 0) {
-            return "()";
+    private void logException(ProceedingJoinPoint joinPoint, Throwable ex) {
+        if (!log.isWarnEnabled()) {
+            return;
         }
-        StringJoiner argsDescription = new StringJoiner(", ", "(", ")");
-        var parameterTypes = methodSignature.getParameterTypes();
-        for (int i = 0; i < parameterNames.length; i++) {
-            argsDescription.add(MessageFormat.format("{0} {1}",
-                    parameterTypes[i].getSimpleName(), parameterNames[i]));
+        MethodDescription description = describe(joinPoint);
+        log.warn("Exception has been thrown during method execution [{}] from [{}] class." +
+                        " Invoked with args {}. Error message [{}]",
+                description.signature(), description.className(), Arrays.toString(joinPoint.getArgs()),
+                ex.getMessage());
+    }
+
+    private MethodDescription describe(ProceedingJoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Method method = signature.getMethod();
+        MethodDescription description = descriptions.get(method);
+        return description != null ? description
+                : descriptions.computeIfAbsent(method, key -> MethodDescription.of(signature));
+    }
+
+    private record MethodDescription(String className, String signature) {
+        static MethodDescription of(MethodSignature methodSignature) {
+            String[] parameterNames = methodSignature.getParameterNames();
+            Class<?>[] parameterTypes = methodSignature.getParameterTypes();
+            StringJoiner argsDescription = new StringJoiner(", ", "(", ")");
+            for (int i = 0; i < parameterTypes.length; i++) {
+                String parameterName = parameterNames != null ? parameterNames[i] : "arg" + i;
+                argsDescription.add(parameterTypes[i].getSimpleName() + " " + parameterName);
+            }
+            return new MethodDescription(methodSignature.getDeclaringType().getSimpleName(),
+                    methodSignature.getName() + argsDescription);
         }
-        return methodName + argsDescription;
     }
 }
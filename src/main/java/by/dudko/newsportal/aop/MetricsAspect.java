@@ -0,0 +1,94 @@
+package by.dudko.newsportal.aop;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "newsportal.metrics.method-timing", name = "enabled", havingValue = "true")
+public class MetricsAspect {
+    private static final String TIMER_NAME = "newsportal.method.invocations";
+    private static final String ERROR_COUNTER_NAME = "newsportal.method.errors";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<MeterKey, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    @Around("by.dudko.newsportal.aop.Pointcuts.isApplicationLayer()")
+    public Object aroundTiming(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodMeters methodMeters = metersOf(joinPoint);
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            methodMeters.errors().increment();
+            throw ex;
+        } finally {
+            methodMeters.timer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private MethodMeters metersOf(ProceedingJoinPoint joinPoint) {
+        // repositories share SimpleJpaRepository methods, so the proxy class tells them apart
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        MeterKey key = new MeterKey(joinPoint.getThis().getClass(), signature.getMethod());
+        MethodMeters methodMeters = meters.get(key);
+        return methodMeters != null ? methodMeters
+                : meters.computeIfAbsent(key, k -> register(joinPoint.getThis(), k.method()));
+    }
+
+    private MethodMeters register(Object proxy, Method method) {
+        String className = componentNameOf(proxy);
+        String methodName = signatureOf(method);
+        Timer timer = Timer.builder(TIMER_NAME)
+                .tag("class", className)
+                .tag("method", methodName)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Counter errors = Counter.builder(ERROR_COUNTER_NAME)
+                .tag("class", className)
+                .tag("method", methodName)
+                .register(meterRegistry);
+        return new MethodMeters(timer, errors);
+    }
+
+    // overloads get meters of their own, e.g. findAllByUserId(long,Pageable) and findAllByUserId(long,NewsCursor,int)
+    private static String signatureOf(Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(",", method.getName() + "(", ")"));
+    }
+
+    private static String componentNameOf(Object proxy) {
+        if (Proxy.isProxyClass(proxy.getClass())) { // repository interfaces are proxied with jdk proxies
+            Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(proxy);
+            return interfaces.length > 0 ? interfaces[0].getSimpleName() : proxy.getClass().getSimpleName();
+        }
+        return ClassUtils.getUserClass(proxy).getSimpleName();
+    }
+
+    private record MeterKey(Class<?> componentClass, Method method) {
+    }
+
+    private record MethodMeters(Timer timer, Counter errors) {
+    }
+}
@@ -0,0 +1,21 @@
+package by.dudko.newsportal.aop;
+
+import org.aspectj.lang.annotation.Pointcut;
+
+public class Pointcuts {
+    @Pointcut(value = "@within(org.springframework.stereotype.Service)")
+    public void isService() {
+    }
+
+    @Pointcut(value = "@within(org.springframework.web.bind.annotation.RestController)")
+    public void isRestController() {
+    }
+
+    @Pointcut(value = "this(org.springframework.data.repository.Repository)")
+    public void isRepository() {
+    }
+
+    @Pointcut(value = "isRestController() || isService() || isRepository()")
+    public void isApplicationLayer() {
+    }
+}
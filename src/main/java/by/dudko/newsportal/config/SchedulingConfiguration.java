@@ -0,0 +1,12 @@
+package by.dudko.newsportal.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@EnableScheduling
+@Configuration
+@ConditionalOnProperty(prefix = "newsportal.scheduling", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class SchedulingConfiguration {
+}
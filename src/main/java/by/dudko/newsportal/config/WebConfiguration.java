@@ -0,0 +1,26 @@
+package by.dudko.newsportal.config;
+
+import by.dudko.newsportal.web.cache.ResponseCache;
+import by.dudko.newsportal.web.cache.ResponseCacheFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class WebConfiguration {
+    @Bean
+    @ConditionalOnProperty(prefix = "newsportal.web.response-cache", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(
+            ResponseCache responseCache,
+            @Value("${newsportal.web.response-cache.gzip-min-size:1024}") int gzipMinSize) {
+        FilterRegistrationBean<ResponseCacheFilter> registration =
+                new FilterRegistrationBean<>(new ResponseCacheFilter(responseCache, gzipMinSize));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1); // after spring security
+        return registration;
+    }
+}
@@ -0,0 +1,32 @@
+package by.dudko.newsportal.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+// reads whose results are kept in memory, a value loaded from a lagging replica would be served long after it caught up
+@Component
+public class PrimaryReads {
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean routingEnabled;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager,
+                        @Value("${newsportal.datasource.routing.enabled:false}") boolean routingEnabled) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.routingEnabled = routingEnabled;
+    }
+
+    // the surrounding transaction may already hold a replica connection, so the read gets a transaction of its own
+    public <T> T read(Supplier<T> query) {
+        if (!routingEnabled) {
+            return query.get();
+        }
+        return ReadWriteRoutingDataSource.onPrimary(() -> readOnlyTransaction.execute(status -> query.get()));
+    }
+}
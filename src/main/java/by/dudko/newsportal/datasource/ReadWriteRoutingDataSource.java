@@ -0,0 +1,191 @@
+package by.dudko.newsportal.datasource;
+
+import by.dudko.newsportal.dto.user.UserDetailsImpl;
+import by.dudko.newsportal.util.ExpiringCache;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// must sit behind a LazyConnectionDataSourceProxy: the read-only flag is only known once the transaction has begun.
+// recent writers are remembered per instance, behind a load balancer without sticky sessions a user's next read
+// may land on another node and see a replica that has not caught up yet
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private static final String REPLICATION_LAG_QUERY = """
+            select coalesce(case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                else extract(epoch from now() - pg_last_xact_replay_timestamp()) end, 0)
+            """;
+
+    private final List<String> replicaKeys;
+    private final Map<String, DataSource> replicas;
+    private final Set<String> unhealthyReplicas = ConcurrentHashMap.newKeySet();
+    private final ExpiringCache<Long, Boolean> recentWriters;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Duration healthCheckTimeout;
+    private final Duration maxReplicationLag;
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                      Duration readYourWritesWindow, Duration healthCheckTimeout,
+                                      Duration maxReplicationLag) {
+        this.replicaKeys = List.copyOf(replicas.keySet());
+        this.replicas = Map.copyOf(replicas);
+        this.recentWriters = new ExpiringCache<>(readYourWritesWindow, 100_000);
+        this.healthCheckTimeout = healthCheckTimeout;
+        this.maxReplicationLag = maxReplicationLag;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive() || PRIMARY_REQUIRED.get()) {
+            return PRIMARY; // schema migration, non transactional work, reads that are cached afterwards
+        }
+        Optional<Long> userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            userId.ifPresent(this::markWriterOnCommit);
+            return PRIMARY;
+        }
+        if (userId.flatMap(recentWriters::get).isPresent()) { // read-your-writes while replicas catch up
+            return PRIMARY;
+        }
+        Optional<String> replica = nextHealthyReplica();
+        if (replica.isEmpty()) {
+            return PRIMARY;
+        }
+        skipSecondLevelCachePuts();
+        return replica.get();
+    }
+
+    // connections acquired by the action go to the primary, whatever the read-only flag of their transaction
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean previous = requirePrimary();
+        try {
+            return action.get();
+        } finally {
+            restorePrimaryRequired(previous);
+        }
+    }
+
+    // for work that cannot be passed as a supplier, the returned flag is restored once the work is done
+    public static boolean requirePrimary() {
+        boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public static void restorePrimaryRequired(boolean previous) {
+        PRIMARY_REQUIRED.set(previous);
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get();
+    }
+
+    @Scheduled(fixedDelayString = "${newsportal.datasource.routing.health-check-interval:PT10S}")
+    public void checkReplicas() {
+        replicas.forEach((key, replica) -> {
+            boolean healthy = isHealthy(key, replica);
+            boolean changed = healthy ? unhealthyReplicas.remove(key) : unhealthyReplicas.add(key);
+            if (changed) {
+                log.warn("Replica [{}] is {}", key, healthy ? "back in rotation" : "out of rotation");
+            }
+        });
+    }
+
+    public void close() { // replica pools belong to this data source, the primary is a bean of its own
+        replicas.values().forEach(replica -> {
+            if (replica instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    log.warn("Failed to close replica pool", ex);
+                }
+            }
+        });
+    }
+
+    // the window starts once the write is visible, not when a long transaction issued its first statement
+    private void markWriterOnCommit(long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentWriters.put(userId, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+
+    private boolean isHealthy(String key, DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             PreparedStatement statement = connection.prepareStatement(REPLICATION_LAG_QUERY)) {
+            statement.setQueryTimeout((int) Math.max(1, healthCheckTimeout.toSeconds()));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+                return lagSeconds * 1000 <= maxReplicationLag.toMillis();
+            }
+        } catch (SQLException ex) {
+            log.debug("Health check of replica [{}] failed", key, ex);
+            return false;
+        }
+    }
+
+    // entities and query results read from a replica are still served from the second level cache but never put
+    // into it, a stale row would outlive the replication lag by the whole ttl of its region
+    private static void skipSecondLevelCachePuts() {
+        TransactionSynchronizationManager.getResourceMap().values().stream()
+                .filter(EntityManagerHolder.class::isInstance)
+                .map(holder -> ((EntityManagerHolder) holder).getEntityManager())
+                .map(entityManager -> entityManager.unwrap(Session.class))
+                .forEach(session -> session.setCacheMode(CacheMode.GET));
+    }
+
+    private Optional<String> nextHealthyReplica() {
+        int size = replicaKeys.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            String key = replicaKeys.get((start + i) % size);
+            if (!unhealthyReplicas.contains(key)) {
+                return Optional.of(key);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Long> currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl userDetails) {
+            return Optional.of(userDetails.getId());
+        }
+        return Optional.empty();
+    }
+}
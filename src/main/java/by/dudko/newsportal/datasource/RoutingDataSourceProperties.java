@@ -0,0 +1,20 @@
+package by.dudko.newsportal.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "newsportal.datasource.routing")
+public record RoutingDataSourceProperties(
+        boolean enabled,
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("10") int replicaPoolSize,
+        @DefaultValue("PT5S") Duration readYourWritesWindow,
+        @DefaultValue("PT1S") Duration healthCheckTimeout,
+        @DefaultValue("PT10S") Duration maxReplicationLag) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,37 @@
+package by.dudko.newsportal.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class CursorPageResponse<T> {
+    List<T> content;
+    Metadata metadata;
+
+    public static <T> CursorPageResponse<T> of(List<T> content, int size, String next) {
+        Metadata metadata = Metadata.builder()
+                .size(size)
+                .numberOfElements(content.size())
+                .hasNext(next != null)
+                .next(next)
+                .build();
+        return new CursorPageResponse<>(content, metadata);
+    }
+
+    @Value
+    @Builder
+    public static class Metadata {
+        int size;
+        int numberOfElements;
+        boolean hasNext;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        String next;
+    }
+}
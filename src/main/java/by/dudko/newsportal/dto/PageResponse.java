@@ -1,5 +1,6 @@
 package by.dudko.newsportal.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.RequiredArgsConstructor;
@@ -15,12 +16,21 @@ public class PageResponse<T> {
     Metadata metadata;
 
     public static <T> PageResponse<T> of(Page<T> page) {
+        return of(page, false);
+    }
+
+    public static <T> PageResponse<T> estimated(Page<T> page) { // totals come from planner statistics
+        return of(page, true);
+    }
+
+    private static <T> PageResponse<T> of(Page<T> page, boolean estimated) {
         Metadata metadata = Metadata.builder()
                 .page(page.getNumber())
                 .size(page.getSize())
                 .totalElements(page.getTotalElements())
                 .totalPages(page.getTotalPages())
                 .numberOfElements(page.getNumberOfElements())
+                .estimated(estimated)
                 .build();
         return new PageResponse<>(page.getContent(), metadata);
     }
@@ -33,5 +43,8 @@ public class PageResponse<T> {
         long totalElements;
         int numberOfElements;
         int totalPages;
+
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+        boolean estimated;
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package by.dudko.newsportal.dto;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.StringJoiner;
+
+// version is the entity version the tag was computed from, null for representations of no single entity
+public record ResourceValidator(String eTag, Instant lastModified, Long version) {
+    public static ResourceValidator of(Instant lastModified, Object... state) {
+        return new ResourceValidator(digest(state), lastModified, null);
+    }
+
+    public static ResourceValidator ofVersionAndState(long version, Instant lastModified, Object... state) {
+        Object[] versionedState = new Object[state.length + 1];
+        versionedState[0] = version;
+        System.arraycopy(state, 0, versionedState, 1, state.length);
+        return new ResourceValidator(digest(versionedState), lastModified, version);
+    }
+
+    public static ResourceValidator ofVersion(long version, Instant lastModified) { // entity version is the tag itself
+        return new ResourceValidator(String.valueOf(version), lastModified, version);
+    }
+
+    public long lastModifiedMillis() { // -1 is "unknown" for WebRequest.checkNotModified
+        return lastModified == null ? -1 : lastModified.toEpochMilli();
+    }
+
+    private static String digest(Object... state) {
+        StringJoiner joiner = new StringJoiner("|");
+        for (Object part : state) {
+            joiner.add(String.valueOf(part));
+        }
+        return DigestUtils.md5DigestAsHex(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,35 @@
+package by.dudko.newsportal.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+@Value
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class SliceResponse<T> {
+    List<T> content;
+    Metadata metadata;
+
+    public static <T> SliceResponse<T> of(Slice<T> slice) {
+        Metadata metadata = Metadata.builder()
+                .page(slice.getNumber())
+                .size(slice.getSize())
+                .numberOfElements(slice.getNumberOfElements())
+                .hasNext(slice.hasNext())
+                .build();
+        return new SliceResponse<>(slice.getContent(), metadata);
+    }
+
+    @Value
+    @Builder
+    public static class Metadata {
+        int page;
+        int size;
+        int numberOfElements;
+        boolean hasNext;
+    }
+}
@@ -9,4 +9,5 @@ public class CommentReadDto {
     long id;
     String text;
     long ownerId;
+    long version;
 }
@@ -0,0 +1,49 @@
+package by.dudko.newsportal.dto.news;
+
+import by.dudko.newsportal.model.News;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record NewsCursor(Instant creationDate, long id) {
+    public static final Sort ORDER = Sort.by(Sort.Order.desc("creationDate"), Sort.Order.desc("id"));
+    private static final char DELIMITER = '|';
+
+    public static NewsCursor of(News news) {
+        return new NewsCursor(news.getCreationDate(), news.getId());
+    }
+
+    public static NewsCursor valueOf(String token) { // used by conversion service for request params
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int delimiterIndex = decoded.lastIndexOf(DELIMITER);
+            if (delimiterIndex < 0) {
+                throw new IllegalArgumentException("Cursor delimiter is missing");
+            }
+            return new NewsCursor(Instant.parse(decoded.substring(0, delimiterIndex)),
+                    Long.parseLong(decoded.substring(delimiterIndex + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid news cursor [%s]".formatted(token), ex);
+        }
+    }
+
+    public String encode() {
+        String raw = creationDate.toString() + DELIMITER + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Specification<News> toSpecification() {
+        return (root, query, cb) -> {
+            Path<Instant> creationDatePath = root.get("creationDate");
+            // redundant upper bound lets the (creation_date, id) index start the scan at the cursor
+            return cb.and(cb.lessThanOrEqualTo(creationDatePath, creationDate),
+                    cb.or(cb.lessThan(creationDatePath, creationDate),
+                            cb.and(cb.equal(creationDatePath, creationDate), cb.lessThan(root.get("id"), id))));
+        };
+    }
+}
@@ -5,19 +5,29 @@ import by.dudko.newsportal.util.SpecificationBuilder;
 import lombok.Builder;
 import lombok.Value;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
 
 @Value
 @Builder
 public class NewsFilter {
     String title;
     String text;
+    String q; // full-text query in websearch syntax, results are ranked by relevance
+
+    public boolean isFullTextSearch() {
+        return StringUtils.hasText(q);
+    }
+
+    public boolean isEmpty() {
+        return !StringUtils.hasText(title) && !StringUtils.hasText(text) && !isFullTextSearch();
+    }
 
     public Specification<News> toSpecification() {
         return SpecificationBuilder.<News>build()
                 .addSpecification(title,
-                        value -> SpecificationBuilder.equalsIgnoreCase(value, newsRoot -> newsRoot.get("title")))
+                        value -> SpecificationBuilder.containsIgnoreCase(value, newsRoot -> newsRoot.get("title")))
                 .addSpecification(text,
-                        value -> SpecificationBuilder.equalsIgnoreCase(value, newsRoot -> newsRoot.get("text")))
+                        value -> SpecificationBuilder.containsIgnoreCase(value, newsRoot -> newsRoot.get("text")))
                 .buildAnd();
     }
 }
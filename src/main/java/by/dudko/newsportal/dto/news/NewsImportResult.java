@@ -0,0 +1,49 @@
+package by.dudko.newsportal.dto.news;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class NewsImportResult {
+    int received;
+    int created;
+    int rejected;
+    List<Item> items;
+
+    public static NewsImportResult of(List<Item> items) {
+        int created = (int) items.stream()
+                .filter(item -> item.getStatus() == Status.CREATED)
+                .count();
+        return new NewsImportResult(items.size(), created, items.size() - created, items);
+    }
+
+    public enum Status {
+        CREATED, REJECTED
+    }
+
+    @Value
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Item {
+        int index;
+        Status status;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Long id;
+
+        @JsonInclude(JsonInclude.Include.NON_EMPTY)
+        List<String> errors;
+
+        public static Item created(int index, long id) {
+            return new Item(index, Status.CREATED, id, List.of());
+        }
+
+        public static Item rejected(int index, List<String> errors) {
+            return new Item(index, Status.REJECTED, null, errors);
+        }
+    }
+}
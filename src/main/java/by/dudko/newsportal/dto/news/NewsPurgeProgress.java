@@ -0,0 +1,4 @@
+package by.dudko.newsportal.dto.news;
+
+public record NewsPurgeProgress(long purgedComments, long purgedNews, long pendingNews) {
+}
@@ -12,6 +12,8 @@ public class NewsReadDto {
     private long id;
     private String title;
     private String text;
+    private long version;
+    private long commentCount;
 
     @JsonInclude(JsonInclude.Include.NON_NULL)
     private PageResponse<CommentReadDto> comments;
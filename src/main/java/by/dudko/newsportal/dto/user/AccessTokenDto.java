@@ -0,0 +1,12 @@
+package by.dudko.newsportal.dto.user;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class AccessTokenDto {
+    String accessToken;
+    String tokenType;
+    long expiresIn;
+}
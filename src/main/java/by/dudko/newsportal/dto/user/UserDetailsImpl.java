@@ -29,6 +29,14 @@ public class UserDetailsImpl implements UserDetails {
         return userDetails;
     }
 
+    public static UserDetailsImpl of(long id, String username, User.Role role) { // restored from an access token
+        UserDetailsImpl userDetails = new UserDetailsImpl();
+        userDetails.id = id;
+        userDetails.username = username;
+        userDetails.role = role;
+        return userDetails;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.singletonList(role);
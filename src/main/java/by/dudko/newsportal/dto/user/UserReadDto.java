@@ -13,4 +13,5 @@ public class UserReadDto {
     String surname;
     String parentName;
     User.Role role;
+    long version;
 }
@@ -0,0 +1,5 @@
+package by.dudko.newsportal.event;
+
+public enum ChangeType {
+    CREATED, UPDATED, DELETED
+}
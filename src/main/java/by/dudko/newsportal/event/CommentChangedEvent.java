@@ -0,0 +1,4 @@
+package by.dudko.newsportal.event;
+
+public record CommentChangedEvent(long commentId, long newsId, long ownerId, ChangeType type) {
+}
@@ -0,0 +1,4 @@
+package by.dudko.newsportal.event;
+
+public record NewsImportedEvent(long ownerId, int count) { // one per imported chunk
+}
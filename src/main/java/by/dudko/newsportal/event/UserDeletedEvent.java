@@ -0,0 +1,4 @@
+package by.dudko.newsportal.event;
+
+public record UserDeletedEvent(long userId) {
+}
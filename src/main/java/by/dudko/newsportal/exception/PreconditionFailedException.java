@@ -0,0 +1,28 @@
+package by.dudko.newsportal.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+    private PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    public static PreconditionFailedException versionMismatch(Class<?> entityClass, Object id,
+                                                              long expectedVersion, long actualVersion) {
+        return new PreconditionFailedException(String.format(
+                "Entity from class [%s] with id [%s] has version [%d], but version [%d] was expected.",
+                entityClass.getSimpleName(), id, actualVersion, expectedVersion));
+    }
+
+    public static PreconditionFailedException unsupportedTag(String entityTag) {
+        return new PreconditionFailedException(String.format(
+                "Entity tag [%s] is not a strong entity version tag.", entityTag));
+    }
+
+    public static PreconditionFailedException tagMismatch(String entityTag) {
+        return new PreconditionFailedException(String.format(
+                "Entity tag [%s] does not match the current representation.", entityTag));
+    }
+}
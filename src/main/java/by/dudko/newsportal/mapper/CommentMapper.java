@@ -3,6 +3,7 @@ package by.dudko.newsportal.mapper;
 import by.dudko.newsportal.dto.comment.CommentCreateEditDto;
 import by.dudko.newsportal.dto.comment.CommentReadDto;
 import by.dudko.newsportal.model.Comment;
+import by.dudko.newsportal.repository.projection.CommentView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
@@ -19,7 +20,10 @@ public interface CommentMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "creationDate", ignore = true)
     @Mapping(target = "lastEditDate", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Comment toComment(CommentCreateEditDto createEditDto, @MappingTarget Comment comment);
 
     CommentReadDto toReadDto(Comment comment);
+
+    CommentReadDto toReadDto(CommentView commentView);
 }
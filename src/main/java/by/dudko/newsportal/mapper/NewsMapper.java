@@ -3,6 +3,7 @@ package by.dudko.newsportal.mapper;
 import by.dudko.newsportal.dto.news.NewsCreateEditDto;
 import by.dudko.newsportal.dto.news.NewsReadDto;
 import by.dudko.newsportal.model.News;
+import by.dudko.newsportal.repository.projection.NewsView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
@@ -20,8 +21,14 @@ public interface NewsMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "creationDate", ignore = true)
     @Mapping(target = "lastEditDate", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "deleted", ignore = true)
+    @Mapping(target = "commentCount", ignore = true)
     News toNews(NewsCreateEditDto createEditDto, @MappingTarget News news);
 
     @Mapping(target = "comments", ignore = true)
     NewsReadDto toReadDto(News news);
+
+    @Mapping(target = "comments", ignore = true)
+    NewsReadDto toReadDto(NewsView newsView);
 }
@@ -22,6 +22,7 @@ public interface UserMapper {
     @Mapping(target = "comments", ignore = true)
     @Mapping(target = "creationDate", ignore = true)
     @Mapping(target = "lastEditDate", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "role", nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     User toUser(UserCreateEditDto createEditDto, @MappingTarget User user);
 
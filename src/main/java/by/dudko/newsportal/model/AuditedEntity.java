@@ -2,6 +2,7 @@ package by.dudko.newsportal.model;
 
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.CreatedDate;
@@ -21,4 +22,7 @@ public abstract class AuditedEntity<T extends Serializable> implements BaseEntit
 
     @LastModifiedDate
     private Instant lastEditDate;
+
+    @Version
+    private long version;
 }
@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,6 +16,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ResultCheckStyle;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.Where;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.LastModifiedBy;
 
@@ -29,10 +33,13 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @EqualsAndHashCode(of = {"title", "text"})
+@SQLDelete(sql = "update news set is_deleted = true where id = ? and version = ?", check = ResultCheckStyle.COUNT)
+@Where(clause = "is_deleted = false") // tombstones stay hidden until the purge removes them
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "news")
 public class News extends AuditedEntity<Long> {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "news_id_seq")
+    @SequenceGenerator(name = "news_id_seq", sequenceName = "news_id_seq", allocationSize = 50)
     private Long id;
     private String title;
     private String text;
@@ -48,4 +55,10 @@ public class News extends AuditedEntity<Long> {
 
     @LastModifiedBy
     private long updatedById;
+
+    @Column(name = "is_deleted")
+    private boolean deleted;
+
+    @Column(insertable = false, updatable = false) // incremented in place, see NewsRepository.addToCommentCount
+    private long commentCount;
 }
@@ -1,12 +1,71 @@
 package by.dudko.newsportal.repository;
 
 import by.dudko.newsportal.model.Comment;
+import by.dudko.newsportal.repository.projection.CommentValidatorView;
+import by.dudko.newsportal.repository.projection.CommentView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    Page<Comment> findAllByOwnerId(long userId, Pageable pageable);
+    String QUERY_REGION = "comment-queries";
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_REGION)})
+    @Query("select c from Comment c where c.ownerId = :userId and c.news.deleted = false")
+    Page<Comment> findAllByOwnerId(@Param("userId") long userId, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_REGION)})
+    @Query("select c from Comment c where c.ownerId = :userId and c.news.deleted = false")
+    Slice<Comment> findSliceByOwnerId(@Param("userId") long userId, Pageable pageable);
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_REGION)})
     Page<Comment> findAllByNewsId(long newsId, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_REGION)})
+    Slice<Comment> findSliceByNewsId(long newsId, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_REGION)})
+    List<CommentView> findAllViewsByNewsId(long newsId, Pageable pageable); // no count query, total is known
+
+    long countByNewsId(long newsId);
+
+    @Query("select count(c) from Comment c where c.ownerId = :userId and c.news.deleted = false")
+    long countByOwnerId(@Param("userId") long userId);
+
+    // skip locked lets purges running on other instances take disjoint chunks instead of queueing on the same rows
+    @Modifying
+    @Query(value = """
+            delete from comments
+            where id in (select c.id from comments c join news n on n.id = c.news_id where n.is_deleted
+                limit :limit for update of c skip locked)
+            """,
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "comments"))
+    int deleteChunkOfDeletedNews(@Param("limit") int limit);
+
+    // comments of tombstoned news wait for the purge, they are gone as far as readers are concerned
+    @Query("select c from Comment c where c.id = :id and c.news.deleted = false")
+    Optional<Comment> findVisibleById(@Param("id") long id);
+
+    @Query("select c.ownerId from Comment c where c.id = :id")
+    Optional<Long> findOwnerIdById(@Param("id") long id);
+
+    @Query("select c.version as version, c.lastEditDate as lastEditDate from Comment c "
+            + "where c.id = :id and c.news.deleted = false")
+    Optional<CommentValidatorView> findValidatorViewById(@Param("id") long id);
 }
@@ -0,0 +1,15 @@
+package by.dudko.newsportal.repository;
+
+import by.dudko.newsportal.model.News;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface NewsKeysetRepository {
+    List<News> findAllLimited(Specification<News> specification, Sort sort, int limit);
+
+    Slice<News> findSlice(Specification<News> specification, Pageable pageable);
+}
@@ -1,18 +1,135 @@
 package by.dudko.newsportal.repository;
 
 import by.dudko.newsportal.model.News;
+import by.dudko.newsportal.repository.projection.NewsValidatorView;
+import by.dudko.newsportal.repository.projection.NewsView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
-public interface NewsRepository extends JpaRepository<News, Long>, JpaSpecificationExecutor<News> {
+public interface NewsRepository extends JpaRepository<News, Long>, JpaSpecificationExecutor<News>,
+        NewsKeysetRepository {
+    String QUERY_REGION = "news-queries";
+    // names no mapped table, so counter updates do not invalidate the whole news region,
+    // the changed news are evicted one by one after commit instead
+    String COMMENT_COUNT_SPACE = "news_comment_count";
+    String SEARCH_QUERY = """
+            select n.* from news n
+            where n.search_vector @@ websearch_to_tsquery('english', :query)
+                and lower(n.title) like :titlePattern
+                and lower(n.text) like :textPattern
+                and not n.is_deleted
+            order by ts_rank(n.search_vector, websearch_to_tsquery('english', :query)) desc, n.id desc
+            """;
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_REGION)})
+    @Override
+    Page<News> findAll(Specification<News> specification, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_REGION)})
     Page<News> findAllByOwnerId(long userId, Pageable pageable);
 
-    @Query("select n.id from News n where n.ownerId = :ownerId")
-    List<Long> findAllNewsIdByOwnerId(@Param(value = "ownerId") long userId);
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_REGION)})
+    Slice<News> findSliceByOwnerId(long userId, Pageable pageable);
+
+    long countByOwnerId(long userId);
+
+    @Query(value = SEARCH_QUERY,
+            countQuery = """
+                    select count(*) from news n
+                    where n.search_vector @@ websearch_to_tsquery('english', :query)
+                        and lower(n.title) like :titlePattern
+                        and lower(n.text) like :textPattern
+                        and not n.is_deleted
+                    """,
+            nativeQuery = true)
+    Page<News> search(@Param("query") String query, @Param("titlePattern") String titlePattern,
+                      @Param("textPattern") String textPattern, Pageable pageable);
+
+    @Query(value = SEARCH_QUERY, nativeQuery = true)
+    Slice<News> searchSlice(@Param("query") String query, @Param("titlePattern") String titlePattern,
+                            @Param("textPattern") String textPattern, Pageable pageable);
+
+    // planner statistics kept by autovacuum, negative until the table has been analyzed once
+    @Query(value = "select cast(reltuples as bigint) from pg_class where oid = to_regclass('news')", nativeQuery = true)
+    long estimateCount();
+
+    // a primary key lookup, not query cached: the counter updates do not invalidate the news query space
+    @Query("""
+            select n.id as id, n.title as title, n.text as text, n.version as version,
+                n.commentCount as commentCount
+            from News n
+            where n.id = :id
+            """)
+    Optional<NewsView> findViewById(@Param("id") long id);
+
+    @Query("""
+            select n.version as version, n.commentCount as commentCount,
+                (select max(c.lastEditDate) from Comment c where c.news.id = n.id) as lastCommentEditDate
+            from News n
+            where n.id = :id
+            """)
+    Optional<NewsValidatorView> findValidatorViewById(@Param("id") long id);
+
+    @Query("select n.ownerId from News n where n.id = :id")
+    Optional<Long> findOwnerIdById(@Param("id") long id);
+
+    // tombstones only, comments are removed later by the purge, so only the news region is affected
+    @Modifying
+    @Query(value = """
+            update news set is_deleted = true, version = version + 1
+            where id in (select id from news where inserted_by_id = :ownerId and not is_deleted limit :limit)
+            """,
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "news"))
+    int markDeletedChunkByOwnerId(@Param("ownerId") long ownerId, @Param("limit") int limit);
+
+    // a tombstone is purged once the purge has removed all of its comments
+    @Modifying
+    @Query(value = """
+            delete from news
+            where id in (select n.id from news n
+                where n.is_deleted and not exists (select 1 from comments c where c.news_id = n.id)
+                limit :limit for update of n skip locked)
+            """,
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "news"))
+    int purgeDeletedChunk(@Param("limit") int limit);
+
+    @Query(value = "select count(*) from news where is_deleted", nativeQuery = true)
+    long countDeleted();
+
+    @Modifying
+    @Query(value = "update news set comment_count = comment_count + :delta where id = :id", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = COMMENT_COUNT_SPACE))
+    int addToCommentCount(@Param("id") long id, @Param("delta") int delta);
+
+    // comment writes wait for the lock, so the counts taken by the next statement can not miss any of them
+    @Query(value = "select id from news where id > :afterId order by id limit :limit for update", nativeQuery = true)
+    List<Long> lockIdChunkAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = """
+            update news n set comment_count = (select count(*) from comments c where c.news_id = n.id)
+            where n.id in (:ids)
+                and n.comment_count <> (select count(*) from comments c where c.news_id = n.id)
+            """,
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = COMMENT_COUNT_SPACE))
+    int reconcileCommentCounts(@Param("ids") List<Long> ids);
 }
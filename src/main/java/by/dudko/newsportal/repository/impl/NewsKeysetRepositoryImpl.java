@@ -0,0 +1,63 @@
+package by.dudko.newsportal.repository.impl;
+
+import by.dudko.newsportal.model.News;
+import by.dudko.newsportal.repository.NewsKeysetRepository;
+import by.dudko.newsportal.repository.NewsRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class NewsKeysetRepositoryImpl implements NewsKeysetRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<News> findAllLimited(Specification<News> specification, Sort sort, int limit) {
+        return createQuery(specification, sort)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Slice<News> findSlice(Specification<News> specification, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(createQuery(specification, pageable.getSort()).getResultList());
+        }
+        List<News> news = createQuery(specification, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1) // +1 detects next page, no count query
+                .getResultList();
+        boolean hasNext = news.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? news.subList(0, pageable.getPageSize()) : news, pageable, hasNext);
+    }
+
+    private TypedQuery<News> createQuery(Specification<News> specification, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<News> query = cb.createQuery(News.class);
+        Root<News> root = query.from(News.class);
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.select(root)
+                .orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, NewsRepository.QUERY_REGION);
+    }
+}
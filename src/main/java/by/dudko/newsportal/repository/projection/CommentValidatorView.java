@@ -0,0 +1,9 @@
+package by.dudko.newsportal.repository.projection;
+
+import java.time.Instant;
+
+public interface CommentValidatorView {
+    long getVersion();
+
+    Instant getLastEditDate();
+}
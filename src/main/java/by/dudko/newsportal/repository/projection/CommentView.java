@@ -0,0 +1,11 @@
+package by.dudko.newsportal.repository.projection;
+
+public interface CommentView {
+    long getId();
+
+    String getText();
+
+    long getOwnerId();
+
+    long getVersion();
+}
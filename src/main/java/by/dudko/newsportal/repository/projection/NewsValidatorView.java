@@ -0,0 +1,11 @@
+package by.dudko.newsportal.repository.projection;
+
+import java.time.Instant;
+
+public interface NewsValidatorView {
+    long getVersion();
+
+    long getCommentCount();
+
+    Instant getLastCommentEditDate();
+}
@@ -0,0 +1,13 @@
+package by.dudko.newsportal.repository.projection;
+
+public interface NewsView {
+    long getId();
+
+    String getTitle();
+
+    String getText();
+
+    long getCommentCount();
+
+    long getVersion();
+}
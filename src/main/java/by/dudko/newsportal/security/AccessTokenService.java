@@ -0,0 +1,109 @@
+package by.dudko.newsportal.security;
+
+import by.dudko.newsportal.dto.user.AccessTokenDto;
+import by.dudko.newsportal.dto.user.UserDetailsImpl;
+import by.dudko.newsportal.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+@Slf4j
+@Component
+public class AccessTokenService {
+    public static final String TOKEN_TYPE = "Bearer";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_LENGTH = 32;
+    private static final char SEPARATOR = '.';
+    private static final String DELIMITER = "|";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKey key;
+    private final Duration ttl;
+    private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::createMac);
+
+    public AccessTokenService(@Value("${newsportal.security.access-token.secret:}") String secret,
+                              @Value("${newsportal.security.access-token.ttl:PT15M}") Duration ttl) {
+        this.key = toKey(secret);
+        this.ttl = ttl;
+    }
+
+    public AccessTokenDto issue(UserDetailsImpl userDetails) {
+        Instant expiresAt = Instant.now().plus(ttl);
+        // username goes last as the only field that may contain the delimiter
+        String claims = String.join(DELIMITER, String.valueOf(userDetails.getId()), userDetails.getRole().name(),
+                String.valueOf(expiresAt.getEpochSecond()), userDetails.getUsername());
+        String payload = ENCODER.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        return AccessTokenDto.builder()
+                .accessToken(payload + SEPARATOR + ENCODER.encodeToString(sign(payload)))
+                .tokenType(TOKEN_TYPE)
+                .expiresIn(ttl.toSeconds())
+                .build();
+    }
+
+    public Optional<UserDetailsImpl> verify(String token) {
+        int separatorIndex = token.indexOf(SEPARATOR);
+        if (separatorIndex < 0) {
+            return Optional.empty();
+        }
+        try {
+            String payload = token.substring(0, separatorIndex);
+            byte[] signature = DECODER.decode(token.substring(separatorIndex + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return Optional.empty();
+            }
+            String[] claims = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\\|", 4);
+            if (claims.length != 4 || Instant.now().getEpochSecond() >= Long.parseLong(claims[2])) {
+                return Optional.empty();
+            }
+            return Optional.of(UserDetailsImpl.of(Long.parseLong(claims[0]), claims[3], User.Role.valueOf(claims[1])));
+        } catch (IllegalArgumentException ex) { // malformed base64, number or role
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String payload) {
+        return mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac createMac() {
+        try {
+            Mac hmac = Mac.getInstance(ALGORITHM);
+            hmac.init(key);
+            return hmac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static SecretKey toKey(String secret) {
+        if (!StringUtils.hasText(secret)) {
+            log.warn("Access token secret is not configured, tokens will not survive restart" +
+                    " and are not shared between instances");
+            try {
+                return KeyGenerator.getInstance(ALGORITHM).generateKey();
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("Access token secret must be at least %d bytes long"
+                    .formatted(MIN_SECRET_LENGTH));
+        }
+        return new SecretKeySpec(secretBytes, ALGORITHM);
+    }
+}
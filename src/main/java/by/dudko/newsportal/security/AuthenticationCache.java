@@ -0,0 +1,94 @@
+package by.dudko.newsportal.security;
+
+import by.dudko.newsportal.dto.user.UserDetailsImpl;
+import by.dudko.newsportal.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class AuthenticationCache {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final ExpiringCache<String, UserDetailsImpl> verifiedCredentials;
+    private final AtomicLong generation = new AtomicLong(); // bumped on every eviction
+    private final SecretKey key; // per-process key, raw passwords never become cache keys
+    private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::createMac);
+
+    public AuthenticationCache(@Value("${newsportal.security.authentication-cache.ttl:PT5M}") Duration ttl,
+                               @Value("${newsportal.security.authentication-cache.max-size:10000}") int maxSize) {
+        this.verifiedCredentials = new ExpiringCache<>(ttl, maxSize);
+        this.key = generateKey();
+    }
+
+    public Optional<UserDetailsImpl> get(String username, String password) {
+        return verifiedCredentials.get(keyOf(username, password));
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    // observedGeneration is read before the credentials were verified, a password change, role change or deletion
+    // committed during the verification leaves the old credentials uncached
+    public void put(String username, String password, UserDetailsImpl userDetails, long observedGeneration) {
+        String cacheKey = keyOf(username, password);
+        verifiedCredentials.put(cacheKey, userDetails);
+        if (generation.get() != observedGeneration) {
+            verifiedCredentials.remove(cacheKey);
+        }
+    }
+
+    public void evict(long userId) {
+        evictEntriesOf(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) { // drop entries cached before commit too
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictEntriesOf(userId);
+                }
+            });
+        }
+    }
+
+    private void evictEntriesOf(long userId) {
+        generation.incrementAndGet();
+        verifiedCredentials.removeIf((key, userDetails) -> userDetails.getId() == userId);
+    }
+
+    private String keyOf(String username, String password) {
+        Mac hmac = mac.get();
+        hmac.update(username.getBytes(StandardCharsets.UTF_8));
+        hmac.update((byte) 0);
+        return Base64.getEncoder().encodeToString(hmac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Mac createMac() {
+        try {
+            Mac hmac = Mac.getInstance(ALGORITHM);
+            hmac.init(key);
+            return hmac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static SecretKey generateKey() {
+        try {
+            return KeyGenerator.getInstance(ALGORITHM).generateKey();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
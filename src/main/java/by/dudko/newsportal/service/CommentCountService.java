@@ -0,0 +1,5 @@
+package by.dudko.newsportal.service;
+
+public interface CommentCountService {
+    long reconcile();
+}
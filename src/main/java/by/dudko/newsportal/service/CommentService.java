@@ -1,6 +1,7 @@
 package by.dudko.newsportal.service;
 
 import by.dudko.newsportal.dto.PageResponse;
+import by.dudko.newsportal.dto.SliceResponse;
 import by.dudko.newsportal.dto.comment.CommentCreateEditDto;
 import by.dudko.newsportal.dto.comment.CommentReadDto;
 import org.springframework.data.domain.Pageable;
@@ -8,8 +9,12 @@ import org.springframework.data.domain.Pageable;
 public interface CommentService {
     PageResponse<CommentReadDto> findAllByUserId(long userId, Pageable pageable);
 
+    SliceResponse<CommentReadDto> findSliceByUserId(long userId, Pageable pageable);
+
     PageResponse<CommentReadDto> findAllByNewsId(long newsId, Pageable pageable);
 
+    SliceResponse<CommentReadDto> findSliceByNewsId(long newsId, Pageable pageable);
+
     CommentReadDto findById(long id);
 
     boolean isCommentOwner(long userId, long commentId);
@@ -18,5 +23,7 @@ public interface CommentService {
 
     CommentReadDto updateById(long id, CommentCreateEditDto createEditDto);
 
+    CommentReadDto updateById(long id, CommentCreateEditDto createEditDto, long expectedVersion);
+
     void deleteById(long id);
 }
@@ -0,0 +1,9 @@
+package by.dudko.newsportal.service;
+
+import by.dudko.newsportal.dto.news.NewsImportResult;
+
+import java.io.InputStream;
+
+public interface NewsImportService {
+    NewsImportResult importAll(InputStream source);
+}
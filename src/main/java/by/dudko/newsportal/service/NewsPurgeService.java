@@ -0,0 +1,7 @@
+package by.dudko.newsportal.service;
+
+import by.dudko.newsportal.dto.news.NewsPurgeProgress;
+
+public interface NewsPurgeService {
+    NewsPurgeProgress purge();
+}
@@ -1,7 +1,10 @@
 package by.dudko.newsportal.service;
 
+import by.dudko.newsportal.dto.CursorPageResponse;
 import by.dudko.newsportal.dto.PageResponse;
+import by.dudko.newsportal.dto.SliceResponse;
 import by.dudko.newsportal.dto.news.NewsCreateEditDto;
+import by.dudko.newsportal.dto.news.NewsCursor;
 import by.dudko.newsportal.dto.news.NewsFilter;
 import by.dudko.newsportal.dto.news.NewsReadDto;
 import org.springframework.data.domain.Pageable;
@@ -9,8 +12,18 @@ import org.springframework.data.domain.Pageable;
 public interface NewsService {
     PageResponse<NewsReadDto> findAllByFilter(NewsFilter newsFilter, Pageable pageable);
 
+    CursorPageResponse<NewsReadDto> findAllByFilter(NewsFilter newsFilter, NewsCursor after, int size);
+
+    SliceResponse<NewsReadDto> findSliceByFilter(NewsFilter newsFilter, Pageable pageable);
+
+    PageResponse<NewsReadDto> findAllByFilterWithEstimatedTotal(NewsFilter newsFilter, Pageable pageable);
+
     PageResponse<NewsReadDto> findAllByUserId(long userId, Pageable pageable);
 
+    CursorPageResponse<NewsReadDto> findAllByUserId(long userId, NewsCursor after, int size);
+
+    SliceResponse<NewsReadDto> findSliceByUserId(long userId, Pageable pageable);
+
     NewsReadDto findByIdWithComments(long id, Pageable pageable);
 
     boolean isNewsOwner(long userId, long newsId);
@@ -19,5 +32,7 @@ public interface NewsService {
 
     NewsReadDto updateById(long id, NewsCreateEditDto createEditDto);
 
+    NewsReadDto updateById(long id, NewsCreateEditDto createEditDto, long expectedVersion);
+
     void deleteById(long id);
 }
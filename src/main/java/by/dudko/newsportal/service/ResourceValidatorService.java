@@ -0,0 +1,13 @@
+package by.dudko.newsportal.service;
+
+import by.dudko.newsportal.dto.ResourceValidator;
+
+import java.util.Optional;
+
+public interface ResourceValidatorService {
+    Optional<ResourceValidator> findNewsValidator(long newsId);
+
+    Optional<ResourceValidator> findNewsCommentsValidator(long newsId);
+
+    Optional<ResourceValidator> findCommentValidator(long commentId);
+}
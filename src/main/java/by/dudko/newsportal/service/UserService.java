@@ -15,6 +15,8 @@ public interface UserService {
 
     UserReadDto updateById(long id, UserCreateEditDto createEditDto);
 
+    UserReadDto updateById(long id, UserCreateEditDto createEditDto, long expectedVersion);
+
     boolean changePassword(long id, UserChangePasswordDto changePasswordDto);
 
     void deleteById(long id);
@@ -0,0 +1,92 @@
+package by.dudko.newsportal.service.impl;
+
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.CommentChangedEvent;
+import by.dudko.newsportal.model.News;
+import by.dudko.newsportal.repository.NewsRepository;
+import by.dudko.newsportal.service.CommentCountService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Slf4j
+@Service
+public class CommentCountServiceImpl implements CommentCountService {
+    private final NewsRepository newsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Counter repairedCounts;
+    private final int batchSize;
+
+    public CommentCountServiceImpl(NewsRepository newsRepository, TransactionTemplate transactionTemplate,
+                                   EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry,
+                                   @Value("${newsportal.news.comment-count.reconciliation.batch-size:1000}")
+                                   int batchSize) {
+        this.newsRepository = newsRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.repairedCounts = Counter.builder("newsportal.news.comment-count.repaired")
+                .description("News whose comment count had drifted and was recomputed")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+    }
+
+    // walks the news table by id, every chunk is locked and recounted in a short transaction of its own
+    @Scheduled(fixedDelayString = "${newsportal.news.comment-count.reconciliation.interval:PT1H}")
+    @Override
+    public long reconcile() {
+        long repaired = 0;
+        long afterId = 0;
+        ReconciledChunk chunk;
+        do {
+            long chunkStart = afterId;
+            chunk = transactionTemplate.execute(status -> reconcileChunkAfter(chunkStart));
+            repaired += chunk.repaired();
+            afterId = chunk.lastId();
+        } while (chunk.size() == batchSize);
+        repairedCounts.increment(repaired);
+        if (repaired > 0) {
+            entityManagerFactory.getCache().evict(News.class); // which news were repaired is not known
+            log.warn("Repaired comment counts of {} news", repaired);
+        }
+        return repaired;
+    }
+
+    // the counter is updated behind the second level cache, so the cached news is evicted twice: before the commit,
+    // so no stale copy outlives it, and after it, for a copy a concurrent reader cached in between
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void beforeCommentChangeCommitted(CommentChangedEvent event) {
+        evictCountedNews(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCommentChanged(CommentChangedEvent event) {
+        evictCountedNews(event);
+    }
+
+    private void evictCountedNews(CommentChangedEvent event) {
+        if (event.type() != ChangeType.UPDATED) {
+            entityManagerFactory.getCache().evict(News.class, event.newsId());
+        }
+    }
+
+    private ReconciledChunk reconcileChunkAfter(long afterId) {
+        List<Long> ids = newsRepository.lockIdChunkAfter(afterId, batchSize);
+        if (ids.isEmpty()) {
+            return new ReconciledChunk(afterId, 0, 0);
+        }
+        return new ReconciledChunk(ids.get(ids.size() - 1), ids.size(), newsRepository.reconcileCommentCounts(ids));
+    }
+
+    private record ReconciledChunk(long lastId, int size, int repaired) {
+    }
+}
@@ -0,0 +1,105 @@
+package by.dudko.newsportal.service.impl;
+
+import by.dudko.newsportal.datasource.PrimaryReads;
+import by.dudko.newsportal.dto.comment.CommentReadDto;
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.CommentChangedEvent;
+import by.dudko.newsportal.event.NewsChangedEvent;
+import by.dudko.newsportal.event.UserDeletedEvent;
+import by.dudko.newsportal.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// comment pages of a news, a comment write only drops the pages of its own news while the query cache
+// invalidates every cached comment query through the comments table
+@Component
+public class CommentPageCache {
+    private final ExpiringCache<Key, List<CommentReadDto>> pages;
+    private final AtomicLong generation = new AtomicLong(); // bumped on every eviction
+    private final PrimaryReads primaryReads;
+    private final boolean enabled;
+
+    public CommentPageCache(PrimaryReads primaryReads,
+                            @Value("${newsportal.comment-pages.enabled:true}") boolean enabled,
+                            @Value("${newsportal.comment-pages.ttl:PT5M}") Duration ttl,
+                            @Value("${newsportal.comment-pages.max-size:10000}") int maxSize) {
+        this.primaryReads = primaryReads;
+        this.enabled = enabled;
+        this.pages = new ExpiringCache<>(ttl, maxSize);
+    }
+
+    public List<CommentReadDto> findPage(long newsId, Pageable pageable, Supplier<List<CommentReadDto>> loader) {
+        if (!enabled || pageable.isUnpaged()) { // unpaged requests would hold every comment of the news
+            return loader.get();
+        }
+        Key key = new Key(newsId, pageable);
+        Optional<List<CommentReadDto>> cachedPage = pages.get(key);
+        if (cachedPage.isPresent()) {
+            return cachedPage.get();
+        }
+        long observedGeneration = generation.get();
+        List<CommentReadDto> page = primaryReads.read(loader);
+        pages.put(key, page);
+        if (generation.get() != observedGeneration) { // loaded before a concurrent change was evicted
+            pages.remove(key);
+        }
+        return page;
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        pages.clear();
+    }
+
+    @EventListener
+    public void onCommentChanged(CommentChangedEvent event) {
+        evict(key -> key.newsId() == event.newsId());
+    }
+
+    @EventListener
+    public void onNewsChanged(NewsChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) { // comments of tombstoned news are hidden
+            evict(key -> key.newsId() == event.newsId());
+        }
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) { // the user's news are tombstoned, their ids are unknown
+        evict(key -> true);
+    }
+
+    // evicted at once for the reads of the changing transaction and again once it completes,
+    // pages loaded by other transactions in between still show the old comments
+    private void evict(Predicate<Key> predicate) {
+        if (!enabled) {
+            return;
+        }
+        Runnable eviction = () -> {
+            generation.incrementAndGet();
+            pages.removeIf((key, page) -> predicate.test(key));
+        };
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private record Key(long newsId, Pageable pageable) {
+    }
+}
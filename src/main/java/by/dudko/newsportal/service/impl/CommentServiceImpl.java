@@ -1,9 +1,13 @@
 package by.dudko.newsportal.service.impl;
 
 import by.dudko.newsportal.dto.PageResponse;
+import by.dudko.newsportal.dto.SliceResponse;
 import by.dudko.newsportal.dto.comment.CommentCreateEditDto;
 import by.dudko.newsportal.dto.comment.CommentReadDto;
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.CommentChangedEvent;
 import by.dudko.newsportal.exception.EntityNotFoundException;
+import by.dudko.newsportal.exception.PreconditionFailedException;
 import by.dudko.newsportal.mapper.CommentMapper;
 import by.dudko.newsportal.model.Comment;
 import by.dudko.newsportal.model.News;
@@ -12,11 +16,17 @@ import by.dudko.newsportal.repository.CommentRepository;
 import by.dudko.newsportal.repository.NewsRepository;
 import by.dudko.newsportal.repository.UserRepository;
 import by.dudko.newsportal.service.CommentService;
+import by.dudko.newsportal.service.impl.ListingCountCache.Listing;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Optional;
+
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
@@ -25,13 +35,28 @@ public class CommentServiceImpl implements CommentService {
     private final NewsRepository newsRepository;
     private final UserRepository userRepository;
     private final CommentMapper commentMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ListingCountCache listingCountCache;
+    private final OwnerIdCache ownerIdCache;
+    private final CommentPageCache commentPageCache;
 
     @Override
     public PageResponse<CommentReadDto> findAllByUserId(long userId, Pageable pageable) {
         if (!userRepository.existsById(userId)) {
             throw EntityNotFoundException.byId(User.class, userId);
         }
-        return PageResponse.of(commentRepository.findAllByOwnerId(userId, pageable)
+        List<Comment> comments = commentRepository.findSliceByOwnerId(userId, pageable).getContent();
+        return PageResponse.of(PageableExecutionUtils.getPage(comments, pageable, () -> listingCountCache.count(
+                        Listing.USER_COMMENTS, userId, () -> commentRepository.countByOwnerId(userId)))
+                .map(commentMapper::toReadDto));
+    }
+
+    @Override
+    public SliceResponse<CommentReadDto> findSliceByUserId(long userId, Pageable pageable) {
+        if (!userRepository.existsById(userId)) {
+            throw EntityNotFoundException.byId(User.class, userId);
+        }
+        return SliceResponse.of(commentRepository.findSliceByOwnerId(userId, pageable)
                 .map(commentMapper::toReadDto));
     }
 
@@ -40,21 +65,32 @@ public class CommentServiceImpl implements CommentService {
         if (!newsRepository.existsById(newsId)) {
             throw EntityNotFoundException.byId(News.class, newsId);
         }
-        return PageResponse.of(commentRepository.findAllByNewsId(newsId, pageable)
+        List<CommentReadDto> comments = commentPageCache.findPage(newsId, pageable, () ->
+                commentRepository.findSliceByNewsId(newsId, pageable).map(commentMapper::toReadDto).getContent());
+        return PageResponse.of(PageableExecutionUtils.getPage(comments, pageable, () -> listingCountCache.count(
+                Listing.NEWS_COMMENTS, newsId, () -> commentRepository.countByNewsId(newsId))));
+    }
+
+    @Override
+    public SliceResponse<CommentReadDto> findSliceByNewsId(long newsId, Pageable pageable) {
+        if (!newsRepository.existsById(newsId)) {
+            throw EntityNotFoundException.byId(News.class, newsId);
+        }
+        return SliceResponse.of(commentRepository.findSliceByNewsId(newsId, pageable)
                 .map(commentMapper::toReadDto));
     }
 
     @Override
     public CommentReadDto findById(long id) {
-        return commentRepository.findById(id)
+        return commentRepository.findVisibleById(id)
                 .map(commentMapper::toReadDto)
                 .orElseThrow(() -> EntityNotFoundException.byId(Comment.class, id));
     }
 
     @Override
     public boolean isCommentOwner(long userId, long commentId) {
-        return commentRepository.findById(commentId)
-                .map(comment -> comment.getOwnerId() == userId)
+        return ownerIdCache.findOwnerId(Comment.class, commentId, () -> commentRepository.findOwnerIdById(commentId))
+                .map(ownerId -> ownerId == userId)
                 .orElseThrow(() -> EntityNotFoundException.byId(Comment.class, commentId));
     }
 
@@ -68,6 +104,10 @@ public class CommentServiceImpl implements CommentService {
                     return comment;
                 })
                 .map(commentRepository::saveAndFlush)
+                .map(comment -> {
+                    newsRepository.addToCommentCount(newsId, 1); // after the insert, keeps the news row lock short
+                    return publishChange(comment, newsId, ChangeType.CREATED);
+                })
                 .map(commentMapper::toReadDto)
                 .orElseThrow(() -> EntityNotFoundException.byId(News.class, newsId));
 
@@ -76,18 +116,47 @@ public class CommentServiceImpl implements CommentService {
     @Transactional
     @Override
     public CommentReadDto updateById(long id, CommentCreateEditDto createEditDto) {
-        return commentRepository.findById(id)
-                .map(comment -> commentMapper.toComment(createEditDto, comment))
-                .map(commentMapper::toReadDto)
+        return commentRepository.findVisibleById(id)
+                .map(comment -> update(comment, createEditDto))
+                .orElseThrow(() -> EntityNotFoundException.byId(Comment.class, id));
+    }
+
+    @Transactional
+    @Override
+    public CommentReadDto updateById(long id, CommentCreateEditDto createEditDto, long expectedVersion) {
+        return commentRepository.findVisibleById(id)
+                .map(comment -> {
+                    if (comment.getVersion() != expectedVersion) { // fail before any update statement is issued
+                        throw PreconditionFailedException.versionMismatch(Comment.class, id, expectedVersion,
+                                comment.getVersion());
+                    }
+                    return update(comment, createEditDto);
+                })
                 .orElseThrow(() -> EntityNotFoundException.byId(Comment.class, id));
     }
 
     @Transactional
     @Override
     public void deleteById(long id) {
-        Comment comment = commentRepository.findById(id)
+        Comment comment = commentRepository.findVisibleById(id)
                 .orElseThrow(() -> EntityNotFoundException.byId(Comment.class, id));
         commentRepository.delete(comment);
         commentRepository.flush();
+        newsRepository.addToCommentCount(comment.getNews().getId(), -1);
+        publishChange(comment, comment.getNews().getId(), ChangeType.DELETED);
+    }
+
+    private CommentReadDto update(Comment comment, CommentCreateEditDto createEditDto) {
+        return Optional.of(commentMapper.toComment(createEditDto, comment))
+                .map(commentRepository::saveAndFlush) // flush bumps the version, so the response carries the new one
+                .map(updatedComment -> publishChange(updatedComment, updatedComment.getNews().getId(),
+                        ChangeType.UPDATED))
+                .map(commentMapper::toReadDto)
+                .orElseThrow();
+    }
+
+    private Comment publishChange(Comment comment, long newsId, ChangeType type) {
+        eventPublisher.publishEvent(new CommentChangedEvent(comment.getId(), newsId, comment.getOwnerId(), type));
+        return comment;
     }
 }
@@ -0,0 +1,150 @@
+package by.dudko.newsportal.service.impl;
+
+import by.dudko.newsportal.datasource.PrimaryReads;
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.CommentChangedEvent;
+import by.dudko.newsportal.event.NewsChangedEvent;
+import by.dudko.newsportal.event.NewsImportedEvent;
+import by.dudko.newsportal.event.UserDeletedEvent;
+import by.dudko.newsportal.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+// exact totals of the per-user and per-news listings, adjusted in place by the changes the services commit
+@Component
+public class ListingCountCache {
+    private final ExpiringCache<Key, Long> counts;
+    private final Map<Key, Integer> pendingChanges = new ConcurrentHashMap<>(); // changes not yet completed
+    private final AtomicLong generation = new AtomicLong(); // bumped on every change
+    private final PrimaryReads primaryReads;
+    private final boolean enabled;
+
+    // the ttl bounds the drift caused by changes made behind the services
+    public ListingCountCache(PrimaryReads primaryReads,
+                             @Value("${newsportal.listing-counts.enabled:true}") boolean enabled,
+                             @Value("${newsportal.listing-counts.ttl:PT10M}") Duration ttl,
+                             @Value("${newsportal.listing-counts.max-size:50000}") int maxSize) {
+        this.primaryReads = primaryReads;
+        this.enabled = enabled;
+        this.counts = new ExpiringCache<>(ttl, maxSize);
+    }
+
+    public long count(Listing listing, long id, LongSupplier counter) {
+        if (!enabled) {
+            return counter.getAsLong();
+        }
+        Key key = new Key(listing, id);
+        Optional<Long> cachedCount = counts.get(key);
+        if (cachedCount.isPresent()) {
+            return cachedCount.get();
+        }
+        long observedGeneration = generation.get();
+        boolean cacheable = !pendingChanges.containsKey(key); // a committing change may or may not be counted
+        long count = primaryReads.read(counter::getAsLong);
+        if (cacheable) {
+            counts.put(key, count);
+            if (generation.get() != observedGeneration) { // counted before a concurrent change was applied
+                counts.remove(key);
+            }
+        }
+        return count;
+    }
+
+    public void countChanged(Listing listing, long id, long delta) {
+        change(Map.of(new Key(listing, id), delta), Set.of());
+    }
+
+    public void evictAll(Listing listing) { // bulk changes, the affected ids are unknown
+        if (!enabled) {
+            return;
+        }
+        generation.incrementAndGet();
+        afterCompletion(committed -> {
+            counts.removeIf((key, count) -> key.listing() == listing);
+            generation.incrementAndGet();
+        });
+    }
+
+    @EventListener
+    public void onCommentChanged(CommentChangedEvent event) {
+        if (event.type() != ChangeType.UPDATED) {
+            long delta = event.type() == ChangeType.CREATED ? 1 : -1;
+            change(Map.of(new Key(Listing.NEWS_COMMENTS, event.newsId()), delta,
+                    new Key(Listing.USER_COMMENTS, event.ownerId()), delta), Set.of());
+        }
+    }
+
+    @EventListener
+    public void onNewsChanged(NewsChangedEvent event) {
+        if (event.type() == ChangeType.CREATED) {
+            countChanged(Listing.USER_NEWS, event.ownerId(), 1);
+        } else if (event.type() == ChangeType.DELETED) {
+            change(Map.of(new Key(Listing.USER_NEWS, event.ownerId()), -1L),
+                    Set.of(new Key(Listing.NEWS_COMMENTS, event.newsId())));
+            evictAll(Listing.USER_COMMENTS); // comments of tombstoned news are no longer counted, owners unknown
+        }
+    }
+
+    @EventListener
+    public void onNewsImported(NewsImportedEvent event) {
+        countChanged(Listing.USER_NEWS, event.ownerId(), event.count());
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        change(Map.of(), Set.of(new Key(Listing.USER_NEWS, event.userId())));
+        evictAll(Listing.USER_COMMENTS); // the user's news are tombstoned along with the comments of others
+    }
+
+    // deltas are applied once the change is committed, rolled back changes leave the counts untouched
+    private void change(Map<Key, Long> deltas, Set<Key> evictions) {
+        if (!enabled) {
+            return;
+        }
+        generation.incrementAndGet();
+        deltas.keySet().forEach(key -> pendingChanges.merge(key, 1, Integer::sum));
+        afterCompletion(committed -> {
+            if (committed) {
+                deltas.forEach((key, delta) -> counts.computeIfPresent(key, count -> count + delta));
+                evictions.forEach(counts::remove);
+            }
+            generation.incrementAndGet();
+            deltas.keySet().forEach(key -> pendingChanges.computeIfPresent(key,
+                    (pendingKey, pending) -> pending == 1 ? null : pending - 1));
+        });
+    }
+
+    private static void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    public enum Listing {
+        USER_NEWS,
+        USER_COMMENTS,
+        NEWS_COMMENTS
+    }
+
+    private record Key(Listing listing, long id) {
+    }
+}
@@ -0,0 +1,128 @@
+package by.dudko.newsportal.service.impl;
+
+import by.dudko.newsportal.dto.news.NewsCreateEditDto;
+import by.dudko.newsportal.dto.news.NewsImportResult;
+import by.dudko.newsportal.dto.news.NewsImportResult.Item;
+import by.dudko.newsportal.event.NewsImportedEvent;
+import by.dudko.newsportal.mapper.NewsMapper;
+import by.dudko.newsportal.model.News;
+import by.dudko.newsportal.repository.NewsRepository;
+import by.dudko.newsportal.service.NewsImportService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NewsImportServiceImpl implements NewsImportService {
+    private static final String CONSTRAINT_VIOLATION_MESSAGE = "Item conflicts with existing data";
+    private static final String STORAGE_FAILURE_MESSAGE = "Item could not be stored";
+
+    private final NewsRepository newsRepository;
+    private final NewsMapper newsMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${newsportal.news.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Override
+    public NewsImportResult importAll(InputStream source) {
+        List<Item> results = new ArrayList<>();
+        List<PendingItem> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        // reads NDJSON as well as a root-level array, one item at a time
+        try (MappingIterator<NewsCreateEditDto> items = objectMapper.readerFor(NewsCreateEditDto.class)
+                .readValues(source)) {
+            while (items.hasNextValue()) {
+                NewsCreateEditDto item = items.nextValue();
+                List<String> errors = validate(item);
+                if (!errors.isEmpty()) {
+                    results.add(Item.rejected(index, errors));
+                } else {
+                    chunk.add(new PendingItem(index, item));
+                    if (chunk.size() == chunkSize) {
+                        results.addAll(saveChunk(chunk));
+                        chunk.clear();
+                    }
+                }
+                index++;
+            }
+        } catch (IOException ex) { // the rest of the stream can not be trusted
+            results.add(Item.rejected(index, List.of("Malformed item: " + ex.getMessage())));
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(saveChunk(chunk));
+        }
+        results.sort(Comparator.comparingInt(Item::getIndex));
+        return NewsImportResult.of(results);
+    }
+
+    private List<String> validate(NewsCreateEditDto item) {
+        if (item == null) {
+            return List.of("Item must not be null");
+        }
+        return validator.validate(item).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .toList();
+    }
+
+    private List<Item> saveChunk(List<PendingItem> chunk) {
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> save(chunk));
+            List<Item> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(Item.created(chunk.get(i).index(), ids.get(i)));
+            }
+            return results;
+        } catch (DataAccessException ex) { // the valid items of the chunk are kept, each in a transaction of its own
+            return chunk.stream()
+                    .map(this::saveItem)
+                    .toList();
+        }
+    }
+
+    private Item saveItem(PendingItem pendingItem) {
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> save(List.of(pendingItem)));
+            return Item.created(pendingItem.index(), ids.get(0));
+        } catch (DataIntegrityViolationException ex) { // constraint and driver messages are not for the client
+            return Item.rejected(pendingItem.index(), List.of(CONSTRAINT_VIOLATION_MESSAGE));
+        } catch (DataAccessException ex) {
+            log.warn("Failed to import news item [{}]", pendingItem.index(), ex);
+            return Item.rejected(pendingItem.index(), List.of(STORAGE_FAILURE_MESSAGE));
+        }
+    }
+
+    private List<Long> save(List<PendingItem> items) {
+        List<News> news = newsRepository.saveAll(items.stream()
+                .map(pendingItem -> newsMapper.toNews(pendingItem.item()))
+                .toList());
+        newsRepository.flush();
+        eventPublisher.publishEvent(new NewsImportedEvent(news.get(0).getOwnerId(), news.size()));
+        return news.stream()
+                .map(News::getId)
+                .toList();
+    }
+
+    private record PendingItem(int index, NewsCreateEditDto item) {
+    }
+}
@@ -0,0 +1,106 @@
+package by.dudko.newsportal.service.impl;
+
+import by.dudko.newsportal.dto.news.NewsPurgeProgress;
+import by.dudko.newsportal.repository.CommentRepository;
+import by.dudko.newsportal.repository.NewsRepository;
+import by.dudko.newsportal.service.NewsPurgeService;
+import by.dudko.newsportal.service.impl.ListingCountCache.Listing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+public class NewsPurgeServiceImpl implements NewsPurgeService {
+    private final NewsRepository newsRepository;
+    private final CommentRepository commentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ListingCountCache listingCountCache;
+    private final Counter purgedComments;
+    private final Counter purgedNews;
+    private final AtomicLong pendingNews = new AtomicLong();
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration pause;
+
+    public NewsPurgeServiceImpl(NewsRepository newsRepository, CommentRepository commentRepository,
+                                TransactionTemplate transactionTemplate, ListingCountCache listingCountCache,
+                                MeterRegistry meterRegistry,
+                                @Value("${newsportal.news.purge.batch-size:1000}") int batchSize,
+                                @Value("${newsportal.news.purge.max-batches:100}") int maxBatches,
+                                @Value("${newsportal.news.purge.pause:PT0.1S}") Duration pause) {
+        this.newsRepository = newsRepository;
+        this.commentRepository = commentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.listingCountCache = listingCountCache;
+        this.purgedComments = Counter.builder("newsportal.news.purge.comments")
+                .description("Comments removed by the purge of deleted news")
+                .register(meterRegistry);
+        this.purgedNews = Counter.builder("newsportal.news.purge.news")
+                .description("Deleted news rows removed by the purge")
+                .register(meterRegistry);
+        Gauge.builder("newsportal.news.purge.pending", pendingNews, AtomicLong::get)
+                .description("Deleted news still waiting for the purge")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.pause = pause;
+    }
+
+    // every batch is a short transaction of its own, so no long lived locks are held on comments
+    @Scheduled(fixedDelayString = "${newsportal.news.purge.interval:PT30S}")
+    @Override
+    public NewsPurgeProgress purge() {
+        long comments = 0;
+        long news = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int deletedComments = inTransaction(() -> commentRepository.deleteChunkOfDeletedNews(batchSize));
+            int deletedNews = deletedComments < batchSize // tombstones keep their comments until here
+                    ? inTransaction(() -> newsRepository.purgeDeletedChunk(batchSize))
+                    : 0;
+            comments += deletedComments;
+            news += deletedNews;
+            purgedComments.increment(deletedComments);
+            purgedNews.increment(deletedNews);
+            if ((deletedComments < batchSize && deletedNews < batchSize) || !throttle()) {
+                break;
+            }
+        }
+        if (comments > 0) { // purged comments were still listed under their owners
+            listingCountCache.evictAll(Listing.USER_COMMENTS);
+        }
+        long pending = inTransaction(newsRepository::countDeleted);
+        pendingNews.set(pending);
+        if (comments > 0 || news > 0) {
+            log.info("Purged {} comments and {} deleted news, {} deleted news pending", comments, news, pending);
+        }
+        return new NewsPurgeProgress(comments, news, pending);
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return transactionTemplate.execute(status -> action.get());
+    }
+
+    // sleeps on a scheduling thread of its own, spring.task.scheduling.pool.size leaves one per scheduled job
+    private boolean throttle() { // leaves room for request traffic between batches
+        if (pause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
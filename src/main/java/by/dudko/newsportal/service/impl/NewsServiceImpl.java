@@ -1,23 +1,46 @@
 package by.dudko.newsportal.service.impl;
 
+import by.dudko.newsportal.dto.CursorPageResponse;
 import by.dudko.newsportal.dto.PageResponse;
+import by.dudko.newsportal.dto.SliceResponse;
+import by.dudko.newsportal.dto.comment.CommentReadDto;
 import by.dudko.newsportal.dto.news.NewsCreateEditDto;
+import by.dudko.newsportal.dto.news.NewsCursor;
 import by.dudko.newsportal.dto.news.NewsFilter;
 import by.dudko.newsportal.dto.news.NewsReadDto;
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.NewsChangedEvent;
 import by.dudko.newsportal.exception.EntityNotFoundException;
+import by.dudko.newsportal.exception.PreconditionFailedException;
+import by.dudko.newsportal.mapper.CommentMapper;
 import by.dudko.newsportal.mapper.NewsMapper;
 import by.dudko.newsportal.model.News;
 import by.dudko.newsportal.model.User;
+import by.dudko.newsportal.repository.CommentRepository;
 import by.dudko.newsportal.repository.NewsRepository;
 import by.dudko.newsportal.repository.UserRepository;
-import by.dudko.newsportal.service.CommentService;
+import by.dudko.newsportal.repository.projection.NewsView;
 import by.dudko.newsportal.service.NewsService;
+import by.dudko.newsportal.service.impl.ListingCountCache.Listing;
+import by.dudko.newsportal.util.SpecificationBuilder;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 @Transactional(readOnly = true)
@@ -25,39 +48,106 @@ import java.util.Optional;
 public class NewsServiceImpl implements NewsService {
     private final NewsRepository newsRepository;
     private final UserRepository userRepository;
-    private final CommentService commentService;
+    private final CommentRepository commentRepository;
     private final NewsMapper newsMapper;
+    private final CommentMapper commentMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ParallelNewsReader parallelNewsReader;
+    private final ListingCountCache listingCountCache;
+    private final OwnerIdCache ownerIdCache;
+    private final CommentPageCache commentPageCache;
+    private final PlatformTransactionManager transactionManager;
 
     @Override
     public PageResponse<NewsReadDto> findAllByFilter(NewsFilter newsFilter, Pageable pageable) {
+        if (newsFilter.isFullTextSearch()) {
+            return PageResponse.of(search(newsFilter, pageable)
+                    .map(newsMapper::toReadDto));
+        }
         return PageResponse.of(newsRepository.findAll(newsFilter.toSpecification(), pageable)
                 .map(newsMapper::toReadDto));
     }
 
+    @Override
+    public CursorPageResponse<NewsReadDto> findAllByFilter(NewsFilter newsFilter, NewsCursor after, int size) {
+        return findAllAfter(SpecificationBuilder.<News>build()
+                .addSpecification(newsFilter.toSpecification(), Function.identity())
+                .addSpecification(after, NewsCursor::toSpecification)
+                .buildAnd(), size);
+    }
+
+    @Override
+    public SliceResponse<NewsReadDto> findSliceByFilter(NewsFilter newsFilter, Pageable pageable) {
+        Slice<News> news = newsFilter.isFullTextSearch()
+                ? newsRepository.searchSlice(newsFilter.getQ(),
+                SpecificationBuilder.toContainsPattern(newsFilter.getTitle()),
+                SpecificationBuilder.toContainsPattern(newsFilter.getText()),
+                rankedPageable(pageable))
+                : newsRepository.findSlice(newsFilter.toSpecification(), pageable);
+        return SliceResponse.of(news.map(newsMapper::toReadDto));
+    }
+
+    // only the unfiltered listing has a statistic to estimate from, filtered listings keep the exact count
+    @Override
+    public PageResponse<NewsReadDto> findAllByFilterWithEstimatedTotal(NewsFilter newsFilter, Pageable pageable) {
+        if (!newsFilter.isEmpty()) {
+            return findAllByFilter(newsFilter, pageable);
+        }
+        List<NewsReadDto> content = newsRepository.findSlice(null, pageable).stream()
+                .map(newsMapper::toReadDto)
+                .toList();
+        // the total of the last page is exact, the estimate is only requested for pages that are full
+        return PageResponse.estimated(PageableExecutionUtils.getPage(content, pageable, this::estimateNewsCount));
+    }
+
     @Override
     public PageResponse<NewsReadDto> findAllByUserId(long userId, Pageable pageable) {
         if (!userRepository.existsById(userId)) {
             throw EntityNotFoundException.byId(User.class, userId);
         }
-        return PageResponse.of(newsRepository.findAllByOwnerId(userId, pageable)
+        // the total is only counted for full pages, and then mostly served from memory
+        List<News> news = newsRepository.findSliceByOwnerId(userId, pageable).getContent();
+        return PageResponse.of(PageableExecutionUtils.getPage(news, pageable, () -> listingCountCache.count(
+                        Listing.USER_NEWS, userId, () -> newsRepository.countByOwnerId(userId)))
+                .map(newsMapper::toReadDto));
+    }
+
+    @Override
+    public CursorPageResponse<NewsReadDto> findAllByUserId(long userId, NewsCursor after, int size) {
+        if (!userRepository.existsById(userId)) {
+            throw EntityNotFoundException.byId(User.class, userId);
+        }
+        return findAllAfter(SpecificationBuilder.<News>build()
+                .addSpecification(userId, value -> SpecificationBuilder.equal(value, root -> root.get("ownerId")))
+                .addSpecification(after, NewsCursor::toSpecification)
+                .buildAnd(), size);
+    }
+
+    @Override
+    public SliceResponse<NewsReadDto> findSliceByUserId(long userId, Pageable pageable) {
+        if (!userRepository.existsById(userId)) {
+            throw EntityNotFoundException.byId(User.class, userId);
+        }
+        return SliceResponse.of(newsRepository.findSliceByOwnerId(userId, pageable)
                 .map(newsMapper::toReadDto));
     }
 
+    // only the sequential read gets a transaction, the parallel mode would keep its connection idle during the fan-out
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     @Override
     public NewsReadDto findByIdWithComments(long id, Pageable pageable) {
-        return newsRepository.findById(id)
-                .map(newsMapper::toReadDto)
-                .map(news -> {
-                    news.setComments(commentService.findAllByNewsId(news.getId(), pageable));
-                    return news;
-                })
-                .orElseThrow(() -> EntityNotFoundException.byId(News.class, id));
+        if (parallelNewsReader.isEnabled()) {
+            return parallelNewsReader.findByIdWithComments(id, pageable);
+        }
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return readOnlyTransaction.execute(status -> findByIdWithCommentsSequentially(id, pageable));
     }
 
     @Override
     public boolean isNewsOwner(long userId, long newsId) {
-        return newsRepository.findById(newsId)
-                .map(news -> news.getOwnerId() == userId)
+        return ownerIdCache.findOwnerId(News.class, newsId, () -> newsRepository.findOwnerIdById(newsId))
+                .map(ownerId -> ownerId == userId)
                 .orElseThrow(() -> EntityNotFoundException.byId(News.class, newsId));
     }
 
@@ -67,6 +157,7 @@ public class NewsServiceImpl implements NewsService {
         return Optional.of(createEditDto)
                 .map(newsMapper::toNews)
                 .map(newsRepository::saveAndFlush)
+                .map(news -> publishChange(news, ChangeType.CREATED))
                 .map(newsMapper::toReadDto)
                 .orElseThrow();
     }
@@ -75,8 +166,21 @@ public class NewsServiceImpl implements NewsService {
     @Override
     public NewsReadDto updateById(long id, NewsCreateEditDto createEditDto) {
         return newsRepository.findById(id)
-                .map(news -> newsMapper.toNews(createEditDto, news))
-                .map(newsMapper::toReadDto)
+                .map(news -> update(news, createEditDto))
+                .orElseThrow(() -> EntityNotFoundException.byId(News.class, id));
+    }
+
+    @Transactional
+    @Override
+    public NewsReadDto updateById(long id, NewsCreateEditDto createEditDto, long expectedVersion) {
+        return newsRepository.findById(id)
+                .map(news -> {
+                    if (news.getVersion() != expectedVersion) { // fail before any update statement is issued
+                        throw PreconditionFailedException.versionMismatch(News.class, id, expectedVersion,
+                                news.getVersion());
+                    }
+                    return update(news, createEditDto);
+                })
                 .orElseThrow(() -> EntityNotFoundException.byId(News.class, id));
     }
 
@@ -87,5 +191,68 @@ public class NewsServiceImpl implements NewsService {
                 .orElseThrow(() -> EntityNotFoundException.byId(News.class, id));
         newsRepository.delete(news);
         newsRepository.flush();
+        publishChange(news, ChangeType.DELETED);
+    }
+
+    private NewsReadDto update(News news, NewsCreateEditDto createEditDto) {
+        return Optional.of(newsMapper.toNews(createEditDto, news))
+                .map(newsRepository::saveAndFlush) // flush bumps the version, so the response carries the new one
+                .map(updatedNews -> publishChange(updatedNews, ChangeType.UPDATED))
+                .map(newsMapper::toReadDto)
+                .orElseThrow();
+    }
+
+    private News publishChange(News news, ChangeType type) {
+        eventPublisher.publishEvent(new NewsChangedEvent(news.getId(), news.getOwnerId(), type));
+        return news;
+    }
+
+    private NewsReadDto findByIdWithCommentsSequentially(long id, Pageable pageable) {
+        NewsView newsView = newsRepository.findViewById(id) // comment total comes with the news row
+                .orElseThrow(() -> EntityNotFoundException.byId(News.class, id));
+        NewsReadDto news = newsMapper.toReadDto(newsView);
+        news.setComments(findCommentPage(newsView, pageable));
+        return news;
+    }
+
+    private PageResponse<CommentReadDto> findCommentPage(NewsView newsView, Pageable pageable) {
+        long commentCount = newsView.getCommentCount();
+        boolean pageIsEmpty = commentCount == 0 || pageable.isPaged() && pageable.getOffset() >= commentCount;
+        List<CommentReadDto> comments = pageIsEmpty
+                ? List.of()
+                : commentPageCache.findPage(newsView.getId(), pageable, () ->
+                commentRepository.findAllViewsByNewsId(newsView.getId(), pageable).stream()
+                        .map(commentMapper::toReadDto)
+                        .toList());
+        return PageResponse.of(new PageImpl<>(comments, pageable, commentCount));
+    }
+
+    private Page<News> search(NewsFilter newsFilter, Pageable pageable) {
+        return newsRepository.search(newsFilter.getQ(),
+                SpecificationBuilder.toContainsPattern(newsFilter.getTitle()),
+                SpecificationBuilder.toContainsPattern(newsFilter.getText()),
+                rankedPageable(pageable));
+    }
+
+    private static Pageable rankedPageable(Pageable pageable) { // search results are always ordered by rank
+        return pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+                : Pageable.unpaged();
+    }
+
+    // reltuples also counts the tombstones waiting for the purge, the partial index on them keeps their count cheap
+    private long estimateNewsCount() {
+        long estimate = newsRepository.estimateCount();
+        return estimate < 0 ? newsRepository.count() : Math.max(0, estimate - newsRepository.countDeleted());
+    }
+
+    private CursorPageResponse<NewsReadDto> findAllAfter(Specification<News> specification, int size) {
+        List<News> news = newsRepository.findAllLimited(specification, NewsCursor.ORDER, size + 1); // +1 detects next page
+        boolean hasNext = news.size() > size;
+        List<News> content = hasNext ? news.subList(0, size) : news;
+        String next = hasNext ? NewsCursor.of(content.get(size - 1)).encode() : null;
+        return CursorPageResponse.of(content.stream()
+                .map(newsMapper::toReadDto)
+                .toList(), size, next);
     }
 }
@@ -0,0 +1,80 @@
+package by.dudko.newsportal.service.impl;
+
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.CommentChangedEvent;
+import by.dudko.newsportal.event.NewsChangedEvent;
+import by.dudko.newsportal.event.UserDeletedEvent;
+import by.dudko.newsportal.model.Comment;
+import by.dudko.newsportal.model.News;
+import by.dudko.newsportal.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// the owner of a news or comment never changes, so the ownership checks of @PreAuthorize mostly skip the database
+// and the update or delete behind them is left with the one entity fetch it needs anyway
+@Component
+public class OwnerIdCache {
+    private final ExpiringCache<Key, Long> ownerIds;
+
+    public OwnerIdCache(@Value("${newsportal.owner-ids.ttl:PT30M}") Duration ttl,
+                        @Value("${newsportal.owner-ids.max-size:100000}") int maxSize) {
+        this.ownerIds = new ExpiringCache<>(ttl, maxSize);
+    }
+
+    public Optional<Long> findOwnerId(Class<?> entityClass, long id, Supplier<Optional<Long>> loader) {
+        Key key = new Key(entityClass, id);
+        Optional<Long> cachedOwnerId = ownerIds.get(key);
+        if (cachedOwnerId.isPresent()) {
+            return cachedOwnerId;
+        }
+        Optional<Long> ownerId = loader.get();
+        ownerId.ifPresent(owner -> afterCommit(() -> ownerIds.put(key, owner)));
+        return ownerId;
+    }
+
+    // a deleted entity is reported as missing again instead of being authorized against its former owner
+    @EventListener
+    public void onNewsChanged(NewsChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            afterCommit(() -> ownerIds.remove(new Key(News.class, event.newsId())));
+        }
+    }
+
+    @EventListener
+    public void onCommentChanged(CommentChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            afterCommit(() -> ownerIds.remove(new Key(Comment.class, event.commentId())));
+        }
+    }
+
+    // the user's news are tombstoned in bulk without a news event, their ids are only known by the cached owner
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        afterCommit(() -> ownerIds.removeIf((key, ownerId) -> ownerId == event.userId()));
+    }
+
+    // an owner read inside a transaction may be its own uncommitted insert, after a rollback the row never existed
+    // and requests for that id must get a not found instead of being authorized against the cached owner
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Key(Class<?> entityClass, long id) {
+    }
+}
@@ -0,0 +1,117 @@
+package by.dudko.newsportal.service.impl;
+
+import by.dudko.newsportal.datasource.ReadWriteRoutingDataSource;
+import by.dudko.newsportal.dto.PageResponse;
+import by.dudko.newsportal.dto.comment.CommentReadDto;
+import by.dudko.newsportal.dto.news.NewsReadDto;
+import by.dudko.newsportal.exception.EntityNotFoundException;
+import by.dudko.newsportal.mapper.CommentMapper;
+import by.dudko.newsportal.mapper.NewsMapper;
+import by.dudko.newsportal.model.News;
+import by.dudko.newsportal.repository.CommentRepository;
+import by.dudko.newsportal.repository.NewsRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+// fetches the news row and its comment page at the same time, each on its own connection
+@Component
+public class ParallelNewsReader {
+    private final NewsRepository newsRepository;
+    private final CommentRepository commentRepository;
+    private final NewsMapper newsMapper;
+    private final CommentMapper commentMapper;
+    private final CommentPageCache commentPageCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolTaskExecutor executor;
+    private final AsyncTaskExecutor securityContextExecutor; // the user decides the routing of each worker's connection
+
+    public ParallelNewsReader(NewsRepository newsRepository, CommentRepository commentRepository,
+                              NewsMapper newsMapper, CommentMapper commentMapper,
+                              CommentPageCache commentPageCache, PlatformTransactionManager transactionManager,
+                              @Value("${newsportal.news.parallel-reads.enabled:false}") boolean enabled,
+                              @Value("${newsportal.news.parallel-reads.pool-size:16}") int poolSize,
+                              @Value("${newsportal.news.parallel-reads.queue-capacity:64}") int queueCapacity,
+                              @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        this.newsRepository = newsRepository;
+        this.commentRepository = commentRepository;
+        this.newsMapper = newsMapper;
+        this.commentMapper = commentMapper;
+        this.commentPageCache = commentPageCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // at most a third of the connections, workers waiting for a connection would stall the requests behind them
+        int workers = Math.min(poolSize, Math.max(1, connectionPoolSize / 3));
+        this.executor = enabled ? createExecutor(workers, queueCapacity) : null;
+        this.securityContextExecutor = enabled ? new DelegatingSecurityContextAsyncTaskExecutor(executor) : null;
+    }
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    // the news row and the comment page are read at the same time, the page total is the comment count kept on
+    // the news row. for a missing news the page query is wasted, an index lookup that finds no comments
+    public NewsReadDto findByIdWithComments(long id, Pageable pageable) {
+        CompletableFuture<Optional<NewsReadDto>> news = supplyAsync(() -> newsRepository.findById(id)
+                .map(newsMapper::toReadDto));
+        CompletableFuture<List<CommentReadDto>> comments = supplyAsync(() -> commentPageCache.findPage(id, pageable,
+                () -> commentRepository.findAllViewsByNewsId(id, pageable).stream()
+                        .map(commentMapper::toReadDto)
+                        .toList()));
+        try {
+            NewsReadDto newsReadDto = news.join()
+                    .orElseThrow(() -> EntityNotFoundException.byId(News.class, id));
+            newsReadDto.setComments(PageResponse.of(new PageImpl<>(comments.join(), pageable,
+                    newsReadDto.getCommentCount())));
+            return newsReadDto;
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> query) {
+        Supplier<T> transactionalQuery = () -> readOnlyTransaction.execute(status -> query.get());
+        boolean primaryRequired = ReadWriteRoutingDataSource.isPrimaryRequired(); // workers keep the caller's routing
+        return CompletableFuture.supplyAsync(primaryRequired
+                        ? () -> ReadWriteRoutingDataSource.onPrimary(transactionalQuery)
+                        : transactionalQuery,
+                securityContextExecutor);
+    }
+
+    private static ThreadPoolTaskExecutor createExecutor(int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("news-read-");
+        // a saturated pool degrades to running the query on the request thread instead of failing
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,114 @@
+package by.dudko.newsportal.service.impl;
+
+import by.dudko.newsportal.datasource.PrimaryReads;
+import by.dudko.newsportal.dto.ResourceValidator;
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.CommentChangedEvent;
+import by.dudko.newsportal.event.NewsChangedEvent;
+import by.dudko.newsportal.event.UserDeletedEvent;
+import by.dudko.newsportal.repository.CommentRepository;
+import by.dudko.newsportal.repository.NewsRepository;
+import by.dudko.newsportal.repository.projection.NewsValidatorView;
+import by.dudko.newsportal.service.ResourceValidatorService;
+import by.dudko.newsportal.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Service
+public class ResourceValidatorServiceImpl implements ResourceValidatorService {
+    private static final String NEWS = "news:";
+    private static final String NEWS_COMMENTS = "news-comments:";
+    private static final String COMMENT = "comment:";
+
+    private final NewsRepository newsRepository;
+    private final CommentRepository commentRepository;
+    private final PrimaryReads primaryReads;
+    private final ExpiringCache<String, ResourceValidator> validators;
+    private final AtomicLong generation = new AtomicLong(); // bumped on every eviction
+
+    public ResourceValidatorServiceImpl(NewsRepository newsRepository, CommentRepository commentRepository,
+                                        PrimaryReads primaryReads,
+                                        @Value("${newsportal.web.validator-cache.ttl:PT10M}") Duration ttl,
+                                        @Value("${newsportal.web.validator-cache.max-size:20000}") int maxSize) {
+        this.newsRepository = newsRepository;
+        this.commentRepository = commentRepository;
+        this.primaryReads = primaryReads;
+        this.validators = new ExpiringCache<>(ttl, maxSize);
+    }
+
+    // comment deletions do not move any timestamp forward, so news validators carry no Last-Modified
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<ResourceValidator> findNewsValidator(long newsId) {
+        return cached(NEWS + newsId, () -> newsRepository.findValidatorViewById(newsId)
+                .map(view -> ResourceValidator.ofVersionAndState(view.getVersion(), null, NEWS + newsId,
+                        view.getCommentCount(), view.getLastCommentEditDate())));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<ResourceValidator> findNewsCommentsValidator(long newsId) {
+        return cached(NEWS_COMMENTS + newsId, () -> newsRepository.findValidatorViewById(newsId)
+                .map(view -> ResourceValidator.of(null, NEWS_COMMENTS + newsId,
+                        view.getCommentCount(), view.getLastCommentEditDate())));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<ResourceValidator> findCommentValidator(long commentId) {
+        return cached(COMMENT + commentId, () -> commentRepository.findValidatorViewById(commentId)
+                .map(view -> ResourceValidator.ofVersion(view.getVersion(), view.getLastEditDate())));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onNewsChanged(NewsChangedEvent event) {
+        evict(NEWS + event.newsId());
+        if (event.type() == ChangeType.DELETED) { // cascaded comments
+            evict(NEWS_COMMENTS + event.newsId());
+            generation.incrementAndGet();
+            validators.removeIf((key, validator) -> key.startsWith(COMMENT));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCommentChanged(CommentChangedEvent event) {
+        evict(NEWS + event.newsId());
+        evict(NEWS_COMMENTS + event.newsId());
+        evict(COMMENT + event.commentId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        generation.incrementAndGet();
+        validators.clear();
+    }
+
+    private Optional<ResourceValidator> cached(String key, Supplier<Optional<ResourceValidator>> loader) {
+        Optional<ResourceValidator> cachedValidator = validators.get(key);
+        if (cachedValidator.isPresent()) {
+            return cachedValidator;
+        }
+        long observedGeneration = generation.get();
+        Optional<ResourceValidator> validator = primaryReads.read(loader);
+        validator.ifPresent(value -> {
+            validators.put(key, value);
+            if (generation.get() != observedGeneration) { // loaded before a concurrent change was evicted
+                validators.remove(key);
+            }
+        });
+        return validator;
+    }
+
+    private void evict(String key) {
+        generation.incrementAndGet();
+        validators.remove(key);
+    }
+}
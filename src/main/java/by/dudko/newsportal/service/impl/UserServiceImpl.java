@@ -4,14 +4,19 @@ import by.dudko.newsportal.dto.PageResponse;
 import by.dudko.newsportal.dto.user.UserChangePasswordDto;
 import by.dudko.newsportal.dto.user.UserCreateEditDto;
 import by.dudko.newsportal.dto.user.UserReadDto;
+import by.dudko.newsportal.event.UserDeletedEvent;
 import by.dudko.newsportal.exception.EntityNotFoundException;
+import by.dudko.newsportal.exception.PreconditionFailedException;
 import by.dudko.newsportal.exception.UniqueConstraintViolationException;
 import by.dudko.newsportal.mapper.UserMapper;
 import by.dudko.newsportal.model.User;
 import by.dudko.newsportal.repository.NewsRepository;
 import by.dudko.newsportal.repository.UserRepository;
+import by.dudko.newsportal.security.AuthenticationCache;
 import by.dudko.newsportal.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -28,6 +33,11 @@ public class UserServiceImpl implements UserService {
     private final NewsRepository newsRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final AuthenticationCache authenticationCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${newsportal.users.deletion.news-chunk-size:1000}")
+    private int newsDeletionChunkSize;
 
     @Override
     public PageResponse<UserReadDto> findAllActiveUsers(Pageable pageable) {
@@ -60,15 +70,22 @@ public class UserServiceImpl implements UserService {
     @Transactional
     @Override
     public UserReadDto updateById(long id, UserCreateEditDto createEditDto) {
+        return userRepository.findById(id)
+                .map(user -> update(id, user, createEditDto))
+                .orElseThrow(() -> EntityNotFoundException.byId(User.class, id));
+    }
+
+    @Transactional
+    @Override
+    public UserReadDto updateById(long id, UserCreateEditDto createEditDto, long expectedVersion) {
         return userRepository.findById(id)
                 .map(user -> {
-                    String username = createEditDto.getUsername();
-                    if (!userRepository.isUsernameUniqueExceptUserWithId(username, id)) {
-                        throw UniqueConstraintViolationException.of("username", username);
+                    if (user.getVersion() != expectedVersion) { // fail before any update statement is issued
+                        throw PreconditionFailedException.versionMismatch(User.class, id, expectedVersion,
+                                user.getVersion());
                     }
-                    return userMapper.toUser(createEditDto, user);
+                    return update(id, user, createEditDto);
                 })
-                .map(userMapper::toReadDto)
                 .orElseThrow(() -> EntityNotFoundException.byId(User.class, id));
     }
 
@@ -81,6 +98,7 @@ public class UserServiceImpl implements UserService {
                         return false;
                     }
                     user.setPassword(passwordEncoder.encode(changePasswordDto.newPassword()));
+                    authenticationCache.evict(id);
                     return true;
                 })
                 .orElseThrow(() -> EntityNotFoundException.byId(User.class, id));
@@ -92,7 +110,24 @@ public class UserServiceImpl implements UserService {
         var user = userRepository.findById(id)
                 .orElseThrow(() -> EntityNotFoundException.byId(User.class, id));
         userRepository.delete(user);
-        newsRepository.deleteAllByIdInBatch(newsRepository.findAllNewsIdByOwnerId(id));
+        authenticationCache.evict(id);
+        int deleted;
+        do { // bounded statements instead of one IN list holding every news id, comments are left to the purge
+            deleted = newsRepository.markDeletedChunkByOwnerId(id, newsDeletionChunkSize);
+        } while (deleted == newsDeletionChunkSize);
         userRepository.flush();
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
+    }
+
+    private UserReadDto update(long id, User user, UserCreateEditDto createEditDto) {
+        String username = createEditDto.getUsername();
+        if (!userRepository.isUsernameUniqueExceptUserWithId(username, id)) {
+            throw UniqueConstraintViolationException.of("username", username);
+        }
+        authenticationCache.evict(id);
+        return Optional.of(userMapper.toUser(createEditDto, user))
+                .map(userRepository::saveAndFlush) // flush bumps the version, so the response carries the new one
+                .map(userMapper::toReadDto)
+                .orElseThrow();
     }
 }
@@ -0,0 +1,65 @@
+package by.dudko.newsportal.util;
+
+import by.dudko.newsportal.dto.ResourceValidator;
+import by.dudko.newsportal.exception.PreconditionFailedException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class EntityTags {
+    public static final String GZIP_SUFFIX = "-gzip"; // tags of the gzip encoded bodies of cached responses
+    private static final String ANY = "*";
+
+    // If-Match carries the entity version as a strong tag, e.g. "3"; absent header or * means unconditional
+    public static OptionalLong parseVersion(String ifMatch) {
+        Optional<String> tag = parseStrongTag(ifMatch);
+        if (tag.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(toVersion(tag.get())
+                .orElseThrow(() -> PreconditionFailedException.unsupportedTag(ifMatch)));
+    }
+
+    // resources whose GET tag covers more than the entity: the tag matches while it is still the current one,
+    // a plain version tag is accepted as well
+    public static OptionalLong parseVersion(String ifMatch, Supplier<Optional<ResourceValidator>> currentValidator) {
+        Optional<String> tag = parseStrongTag(ifMatch);
+        if (tag.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        String entityTag = tag.get().endsWith(GZIP_SUFFIX) // the encoding does not change the entity
+                ? tag.get().substring(0, tag.get().length() - GZIP_SUFFIX.length())
+                : tag.get();
+        Optional<Long> matchedVersion = currentValidator.get()
+                .filter(validator -> entityTag.equals(validator.eTag()))
+                .map(ResourceValidator::version);
+        if (matchedVersion.isPresent()) {
+            return OptionalLong.of(matchedVersion.get());
+        }
+        return OptionalLong.of(toVersion(tag.get())
+                .orElseThrow(() -> PreconditionFailedException.tagMismatch(ifMatch)));
+    }
+
+    private static Optional<String> parseStrongTag(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return Optional.empty();
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw PreconditionFailedException.unsupportedTag(ifMatch); // weak tags and lists never match strongly
+        }
+        return Optional.of(tag.substring(1, tag.length() - 1));
+    }
+
+    private static Optional<Long> toVersion(String tag) {
+        try {
+            return Optional.of(Long.parseLong(tag));
+        } catch (NumberFormatException ex) {
+            return Optional.empty();
+        }
+    }
+}
@@ -14,9 +14,20 @@ import java.util.function.Function;
 public class SpecificationBuilder<T> {
     List<Specification<T>> specifications = new ArrayList<>();
 
-    public static <T> Specification<T> equalsIgnoreCase(String value, Function<Root<T>, Path<String>> fieldProvider) {
-        return (root, query, cb) -> cb.like(cb.lower(fieldProvider.apply(root)),
-                MessageFormat.format("%{0}%", value.toLowerCase()));
+    // lower(field) like '%value%' is served by the lower(field) gin_trgm_ops indexes
+    public static <T> Specification<T> containsIgnoreCase(String value, Function<Root<T>, Path<String>> fieldProvider) {
+        return (root, query, cb) -> cb.like(cb.lower(fieldProvider.apply(root)), toContainsPattern(value));
+    }
+
+    public static String toContainsPattern(String value) {
+        if (value == null) {
+            return "%";
+        }
+        return MessageFormat.format("%{0}%", value.toLowerCase());
+    }
+
+    public static <T, V> Specification<T> equal(V value, Function<Root<T>, Path<V>> fieldProvider) {
+        return (root, query, cb) -> cb.equal(fieldProvider.apply(root), value);
     }
 
     public <V> SpecificationBuilder<T> addSpecification(V value, Function<V, Specification<T>> mapper) {
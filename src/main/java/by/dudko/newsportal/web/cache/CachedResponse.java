@@ -0,0 +1,29 @@
+package by.dudko.newsportal.web.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+public record CachedResponse(String tag, String contentType, String eTag, long lastModified, byte[] body,
+                             byte[] gzippedBody) {
+    public static CachedResponse of(String tag, String contentType, String eTag, long lastModified, byte[] body,
+                                    int gzipMinSize) {
+        return new CachedResponse(tag, contentType, eTag, lastModified, body,
+                body.length >= gzipMinSize ? gzip(body) : null);
+    }
+
+    public boolean hasGzippedBody() {
+        return gzippedBody != null;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(body);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,125 @@
+package by.dudko.newsportal.web.cache;
+
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.CommentChangedEvent;
+import by.dudko.newsportal.event.NewsChangedEvent;
+import by.dudko.newsportal.event.NewsImportedEvent;
+import by.dudko.newsportal.event.UserDeletedEvent;
+import by.dudko.newsportal.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+@Component
+public class ResponseCache {
+    private static final String NEWS_LIST = "news";
+    private static final String NEWS = "news:";
+    private static final String USER_NEWS = "user-news:";
+    private static final String COMMENT = "comment:";
+    private static final String USER_COMMENTS = "user-comments:";
+    private static final String NEWS_COMMENTS = "news-comments:";
+
+    // guest endpoints permitted in SecurityConfiguration, each mapped to the tag its entries are evicted by
+    private static final Map<PathPattern, String> TAGGED_ENDPOINTS = new LinkedHashMap<>();
+
+    static {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        TAGGED_ENDPOINTS.put(parser.parse("/api/news"), NEWS_LIST);
+        TAGGED_ENDPOINTS.put(parser.parse("/api/news/{id}"), NEWS + "{id}");
+        TAGGED_ENDPOINTS.put(parser.parse("/api/users/{id}/news"), USER_NEWS + "{id}");
+        TAGGED_ENDPOINTS.put(parser.parse("/api/comments/{id}"), COMMENT + "{id}");
+        TAGGED_ENDPOINTS.put(parser.parse("/api/users/{id}/comments"), USER_COMMENTS + "{id}");
+        TAGGED_ENDPOINTS.put(parser.parse("/api/news/{id}/comments"), NEWS_COMMENTS + "{id}");
+    }
+
+    private final ExpiringCache<String, CachedResponse> responses;
+    private final AtomicLong generation = new AtomicLong(); // bumped on every eviction
+
+    public ResponseCache(@Value("${newsportal.web.response-cache.ttl:PT1M}") Duration ttl,
+                         @Value("${newsportal.web.response-cache.max-size:5000}") int maxSize) {
+        this.responses = new ExpiringCache<>(ttl, maxSize);
+    }
+
+    public Optional<String> tagOf(String path) {
+        PathContainer pathContainer = PathContainer.parsePath(path);
+        for (Map.Entry<PathPattern, String> endpoint : TAGGED_ENDPOINTS.entrySet()) {
+            PathPattern.PathMatchInfo matchInfo = endpoint.getKey().matchAndExtract(pathContainer);
+            if (matchInfo != null) {
+                String id = matchInfo.getUriVariables().get("id");
+                return Optional.of(id == null ? endpoint.getValue() : endpoint.getValue().replace("{id}", id));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<CachedResponse> get(String key) {
+        return responses.get(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    // observedGeneration is read before the response was rendered, so data read before an eviction is never kept
+    public void put(String key, CachedResponse response, long observedGeneration) {
+        responses.put(key, response);
+        if (generation.get() != observedGeneration) {
+            responses.remove(key);
+        }
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        responses.clear();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onNewsChanged(NewsChangedEvent event) {
+        Set<String> tags = Set.of(NEWS_LIST, NEWS + event.newsId(), USER_NEWS + event.ownerId());
+        if (event.type() == ChangeType.DELETED) { // comments are cascaded, their ids and owners are unknown here
+            evict(tag -> tags.contains(tag) || tag.equals(NEWS_COMMENTS + event.newsId())
+                    || tag.startsWith(COMMENT) || tag.startsWith(USER_COMMENTS));
+        } else {
+            evict(tags::contains);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCommentChanged(CommentChangedEvent event) {
+        Set<String> tags = Set.of(COMMENT + event.commentId(), NEWS + event.newsId(),
+                NEWS_COMMENTS + event.newsId(), USER_COMMENTS + event.ownerId());
+        if (event.type() == ChangeType.UPDATED) {
+            evict(tags::contains);
+        } else { // listings carry comment counts, the news owner is unknown here
+            evict(tag -> tags.contains(tag) || tag.equals(NEWS_LIST) || tag.startsWith(USER_NEWS));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onNewsImported(NewsImportedEvent event) {
+        Set<String> tags = Set.of(NEWS_LIST, USER_NEWS + event.ownerId());
+        evict(tags::contains);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        evictAll();
+    }
+
+    private void evict(Predicate<String> tagPredicate) {
+        generation.incrementAndGet();
+        responses.removeIf((key, response) -> tagPredicate.test(response.tag()));
+    }
+}
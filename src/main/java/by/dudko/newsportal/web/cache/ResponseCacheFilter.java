@@ -0,0 +1,164 @@
+package by.dudko.newsportal.web.cache;
+
+import by.dudko.newsportal.datasource.ReadWriteRoutingDataSource;
+import by.dudko.newsportal.util.EntityTags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+public class ResponseCacheFilter extends OncePerRequestFilter {
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+    private static final String GZIP = "gzip";
+
+    private final ResponseCache responseCache;
+    private final int gzipMinSize;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) { // only anonymous reads share a response
+        return !HttpMethod.GET.matches(request.getMethod()) || request.getHeader(HttpHeaders.AUTHORIZATION) != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Optional<String> tag = responseCache.tagOf(path);
+        if (tag.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String key = canonicalKeyOf(path, request);
+        Optional<CachedResponse> cachedResponse = responseCache.get(key);
+        if (cachedResponse.isPresent()) {
+            write(cachedResponse.get(), request, response);
+            return;
+        }
+        long generation = responseCache.generation();
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        responseWrapper.setHeader(CACHE_STATUS_HEADER, "MISS");
+        responseWrapper.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        // the body is kept for the ttl, so a miss renders it from the primary instead of a lagging replica
+        boolean primaryRequired = ReadWriteRoutingDataSource.requirePrimary();
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            ReadWriteRoutingDataSource.restorePrimaryRequired(primaryRequired);
+        }
+        String contentType = responseWrapper.getContentType();
+        if (responseWrapper.getStatus() == HttpStatus.OK.value() && contentType != null
+                && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+            responseCache.put(key, CachedResponse.of(tag.get(), contentType,
+                    responseWrapper.getHeader(HttpHeaders.ETAG), lastModifiedOf(responseWrapper),
+                    responseWrapper.getContentAsByteArray(), gzipMinSize), generation);
+        }
+        responseWrapper.copyBodyToResponse();
+    }
+
+    private void write(CachedResponse cachedResponse, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(CACHE_STATUS_HEADER, "HIT");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        boolean gzipped = cachedResponse.hasGzippedBody() && acceptsGzip(request);
+        // validators stored with the body are honored, so a hit can still be a 304
+        if (new ServletWebRequest(request, response).checkNotModified(
+                gzipped ? gzipETagOf(cachedResponse.eTag()) : cachedResponse.eTag(), cachedResponse.lastModified())) {
+            return;
+        }
+        byte[] body = cachedResponse.body();
+        if (gzipped) {
+            body = cachedResponse.gzippedBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(cachedResponse.contentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static long lastModifiedOf(HttpServletResponse response) {
+        String lastModified = response.getHeader(HttpHeaders.LAST_MODIFIED);
+        return lastModified == null
+                ? -1
+                : ZonedDateTime.parse(lastModified, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+    }
+
+    // the encoded body is another representation, a strong tag must not match both byte sequences
+    private static String gzipETagOf(String eTag) {
+        if (eTag == null || !eTag.endsWith("\"")) {
+            return eTag;
+        }
+        return eTag.substring(0, eTag.length() - 1) + EntityTags.GZIP_SUFFIX + "\"";
+    }
+
+    // gzip;q=0 refuses gzip, * stands for gzip unless gzip is listed itself
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals(GZIP) || name.equals("x-" + GZIP)) {
+                gzipQuality = qualityOf(parameters);
+            } else if (name.equals("*")) {
+                anyQuality = qualityOf(parameters);
+            }
+        }
+        double quality = gzipQuality != null ? gzipQuality : anyQuality != null ? anyQuality : 0;
+        return quality > 0;
+    }
+
+    private static double qualityOf(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException ex) {
+                    return 0; // an unreadable weight does not opt in
+                }
+            }
+        }
+        return 1;
+    }
+
+    // same parameters in any order share one entry
+    private static String canonicalKeyOf(String path, HttpServletRequest request) {
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        if (parameters.isEmpty()) {
+            return path;
+        }
+        StringJoiner query = new StringJoiner("&", path + "?", "");
+        parameters.forEach((name, values) -> {
+            for (String value : values) {
+                query.add(URLEncoder.encode(name, StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        });
+        return query.toString();
+    }
+}
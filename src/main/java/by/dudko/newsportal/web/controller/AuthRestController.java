@@ -0,0 +1,22 @@
+package by.dudko.newsportal.web.controller;
+
+import by.dudko.newsportal.dto.user.AccessTokenDto;
+import by.dudko.newsportal.dto.user.UserDetailsImpl;
+import by.dudko.newsportal.security.AccessTokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/auth")
+@RequiredArgsConstructor
+public class AuthRestController {
+    private final AccessTokenService accessTokenService;
+
+    @PostMapping("/token")
+    public AccessTokenDto issueToken(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return accessTokenService.issue(userDetails);
+    }
+}
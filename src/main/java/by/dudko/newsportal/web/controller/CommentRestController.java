@@ -1,11 +1,16 @@
 package by.dudko.newsportal.web.controller;
 
 import by.dudko.newsportal.dto.PageResponse;
+import by.dudko.newsportal.dto.ResourceValidator;
+import by.dudko.newsportal.dto.SliceResponse;
 import by.dudko.newsportal.dto.comment.CommentCreateEditDto;
 import by.dudko.newsportal.dto.comment.CommentReadDto;
 import by.dudko.newsportal.service.CommentService;
+import by.dudko.newsportal.service.ResourceValidatorService;
+import by.dudko.newsportal.util.EntityTags;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -15,18 +20,28 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.OptionalLong;
 
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class CommentRestController {
     private final CommentService commentService;
+    private final ResourceValidatorService resourceValidatorService;
 
     @GetMapping("/comments/{id}")
-    public CommentReadDto findById(@PathVariable long id) {
+    public CommentReadDto findById(@PathVariable long id, WebRequest request) {
+        Optional<ResourceValidator> validator = resourceValidatorService.findCommentValidator(id);
+        if (validator.isPresent() && isNotModified(validator.get(), request)) {
+            return null;
+        }
         return commentService.findById(id);
     }
 
@@ -35,11 +50,31 @@ public class CommentRestController {
         return commentService.findAllByUserId(userId, pageable);
     }
 
+    @GetMapping(value = "/users/{userId}/comments", params = "paging=slice")
+    public SliceResponse<CommentReadDto> findSliceByUserId(@PathVariable long userId, Pageable pageable) {
+        return commentService.findSliceByUserId(userId, pageable);
+    }
+
     @GetMapping("/news/{newsId}/comments")
-    public PageResponse<CommentReadDto> findAllByNewsId(@PathVariable long newsId, Pageable pageable) {
+    public PageResponse<CommentReadDto> findAllByNewsId(@PathVariable long newsId, Pageable pageable,
+                                                        WebRequest request) {
+        Optional<ResourceValidator> validator = resourceValidatorService.findNewsCommentsValidator(newsId);
+        if (validator.isPresent() && isNotModified(validator.get(), request)) {
+            return null;
+        }
         return commentService.findAllByNewsId(newsId, pageable);
     }
 
+    @GetMapping(value = "/news/{newsId}/comments", params = "paging=slice")
+    public SliceResponse<CommentReadDto> findSliceByNewsId(@PathVariable long newsId, Pageable pageable,
+                                                           WebRequest request) {
+        Optional<ResourceValidator> validator = resourceValidatorService.findNewsCommentsValidator(newsId);
+        if (validator.isPresent() && isNotModified(validator.get(), request)) {
+            return null;
+        }
+        return commentService.findSliceByNewsId(newsId, pageable);
+    }
+
     @PreAuthorize("hasAuthority('ADMIN') || hasAuthority('SUBSCRIBER')")
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping("/news/{newsId}/comments")
@@ -52,8 +87,12 @@ public class CommentRestController {
             " || (hasAuthority('SUBSCRIBER') && @commentServiceImpl.isCommentOwner(principal.id, #id))")
     @PutMapping("/comments/{id}")
     public CommentReadDto update(@PathVariable long id,
-                                 @RequestBody @Validated CommentCreateEditDto createEditDto) {
-        return commentService.updateById(id, createEditDto);
+                                 @RequestBody @Validated CommentCreateEditDto createEditDto,
+                                 @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        OptionalLong expectedVersion = EntityTags.parseVersion(ifMatch);
+        return expectedVersion.isPresent()
+                ? commentService.updateById(id, createEditDto, expectedVersion.getAsLong())
+                : commentService.updateById(id, createEditDto);
     }
 
     @PreAuthorize("hasAuthority('ADMIN')" +
@@ -63,4 +102,8 @@ public class CommentRestController {
     public void delete(@PathVariable long id) {
         commentService.deleteById(id);
     }
+
+    private static boolean isNotModified(ResourceValidator validator, WebRequest request) {
+        return request.checkNotModified(validator.eTag(), validator.lastModifiedMillis());
+    }
 }
@@ -1,13 +1,23 @@
 package by.dudko.newsportal.web.controller;
 
+import by.dudko.newsportal.dto.CursorPageResponse;
 import by.dudko.newsportal.dto.PageResponse;
+import by.dudko.newsportal.dto.SliceResponse;
+import by.dudko.newsportal.dto.ResourceValidator;
 import by.dudko.newsportal.dto.news.NewsCreateEditDto;
+import by.dudko.newsportal.dto.news.NewsCursor;
 import by.dudko.newsportal.dto.news.NewsFilter;
+import by.dudko.newsportal.dto.news.NewsImportResult;
 import by.dudko.newsportal.dto.news.NewsReadDto;
+import by.dudko.newsportal.service.NewsImportService;
 import by.dudko.newsportal.service.NewsService;
+import by.dudko.newsportal.service.ResourceValidatorService;
+import by.dudko.newsportal.util.EntityTags;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,28 +26,73 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.OptionalLong;
 
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class NewsRestController {
     private final NewsService newsService;
+    private final NewsImportService newsImportService;
+    private final ResourceValidatorService resourceValidatorService;
 
     @GetMapping("/news")
     public PageResponse<NewsReadDto> findAll(Pageable pageable, NewsFilter newsFilter) {
         return newsService.findAllByFilter(newsFilter, pageable);
     }
 
+    @GetMapping(value = "/news", params = "paging=slice")
+    public SliceResponse<NewsReadDto> findSlice(Pageable pageable, NewsFilter newsFilter) {
+        return newsService.findSliceByFilter(newsFilter, pageable);
+    }
+
+    @GetMapping(value = "/news", params = "paging=estimate")
+    public PageResponse<NewsReadDto> findAllWithEstimatedTotal(Pageable pageable, NewsFilter newsFilter) {
+        return newsService.findAllByFilterWithEstimatedTotal(newsFilter, pageable);
+    }
+
+    @GetMapping(value = "/news", params = "paging=cursor")
+    public CursorPageResponse<NewsReadDto> findAllByCursor(@RequestParam(required = false) NewsCursor after,
+                                                           Pageable pageable, NewsFilter newsFilter) {
+        if (newsFilter.isFullTextSearch()) { // ranked results have no stable keyset
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Full-text search does not support cursor paging");
+        }
+        return newsService.findAllByFilter(newsFilter, after, pageable.getPageSize());
+    }
+
     @GetMapping("/users/{userId}/news")
     public PageResponse<NewsReadDto> findAllByUserId(@PathVariable long userId, Pageable pageable) {
         return newsService.findAllByUserId(userId, pageable);
     }
 
+    @GetMapping(value = "/users/{userId}/news", params = "paging=slice")
+    public SliceResponse<NewsReadDto> findSliceByUserId(@PathVariable long userId, Pageable pageable) {
+        return newsService.findSliceByUserId(userId, pageable);
+    }
+
+    @GetMapping(value = "/users/{userId}/news", params = "paging=cursor")
+    public CursorPageResponse<NewsReadDto> findAllByUserIdAndCursor(@PathVariable long userId,
+                                                                    @RequestParam(required = false) NewsCursor after,
+                                                                    Pageable pageable) {
+        return newsService.findAllByUserId(userId, after, pageable.getPageSize());
+    }
+
     @GetMapping("/news/{id}")
-    public NewsReadDto findByIdWithComments(@PathVariable long id, Pageable pageable) {
+    public NewsReadDto findByIdWithComments(@PathVariable long id, Pageable pageable, WebRequest request) {
+        Optional<ResourceValidator> validator = resourceValidatorService.findNewsValidator(id);
+        if (validator.isPresent() && request.checkNotModified(validator.get().eTag())) {
+            return null; // 304, nothing is mapped or serialized
+        }
         return newsService.findByIdWithComments(id, pageable);
     }
 
@@ -48,11 +103,22 @@ public class NewsRestController {
         return newsService.save(createEditDto);
     }
 
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'JOURNALIST')")
+    @PostMapping(value = "/news/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public NewsImportResult importNews(InputStream body) { // body is streamed, not bound as a whole
+        return newsImportService.importAll(body);
+    }
+
     @PreAuthorize("hasAuthority('ADMIN')" +
             " || (hasAuthority('JOURNALIST') && @newsServiceImpl.isNewsOwner(principal.id, #id))")
     @PutMapping("/news/{id}")
-    public NewsReadDto updateNews(@PathVariable long id, @RequestBody @Validated NewsCreateEditDto createEditDto) {
-        return newsService.updateById(id, createEditDto);
+    public NewsReadDto updateNews(@PathVariable long id, @RequestBody @Validated NewsCreateEditDto createEditDto,
+                                  @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        OptionalLong expectedVersion = EntityTags.parseVersion(ifMatch,
+                () -> resourceValidatorService.findNewsValidator(id)); // GET tags cover the comments as well
+        return expectedVersion.isPresent()
+                ? newsService.updateById(id, createEditDto, expectedVersion.getAsLong())
+                : newsService.updateById(id, createEditDto);
     }
 
     @PreAuthorize("hasAuthority('ADMIN')" +
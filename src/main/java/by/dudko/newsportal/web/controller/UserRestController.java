@@ -6,10 +6,12 @@ import by.dudko.newsportal.dto.user.UserCreateEditDto;
 import by.dudko.newsportal.dto.user.UserReadDto;
 import by.dudko.newsportal.model.User.Role;
 import by.dudko.newsportal.service.UserService;
+import by.dudko.newsportal.util.EntityTags;
 import by.dudko.newsportal.validation.groups.CreateAction;
 import jakarta.validation.groups.Default;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -20,11 +22,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.OptionalLong;
+
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
@@ -53,11 +58,15 @@ public class UserRestController {
     @PreAuthorize("hasAuthority('ADMIN') || principal.id == #id")
     @PutMapping("/{id}")
     public UserReadDto update(@PathVariable long id, @RequestBody @Validated UserCreateEditDto createEditDto,
-                              @AuthenticationPrincipal(expression = "role") Role currentRole) {
+                              @AuthenticationPrincipal(expression = "role") Role currentRole,
+                              @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (currentRole != Role.ADMIN) { // only admin can change user role
             createEditDto.setRole(currentRole);
         }
-        return userService.updateById(id, createEditDto);
+        OptionalLong expectedVersion = EntityTags.parseVersion(ifMatch);
+        return expectedVersion.isPresent()
+                ? userService.updateById(id, createEditDto, expectedVersion.getAsLong())
+                : userService.updateById(id, createEditDto);
     }
 
     @ResponseStatus(HttpStatus.NO_CONTENT)
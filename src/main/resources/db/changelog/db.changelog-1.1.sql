@@ -0,0 +1,58 @@
+--liquibase formatted sql
+
+--changeset dudkomikhail:4
+CREATE INDEX IF NOT EXISTS news_creation_date_id_idx ON news (creation_date DESC, id DESC);
+--rollback DROP INDEX news_creation_date_id_idx
+
+--changeset dudkomikhail:5
+ALTER TABLE news ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', title), 'A') || setweight(to_tsvector('english', text), 'B')
+) STORED;
+CREATE INDEX IF NOT EXISTS news_search_vector_idx ON news USING GIN (search_vector);
+--rollback DROP INDEX news_search_vector_idx;
+--rollback ALTER TABLE news DROP COLUMN search_vector;
+
+--changeset dudkomikhail:6
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS news_title_trgm_idx ON news USING GIN (lower(title) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS news_text_trgm_idx ON news USING GIN (lower(text) gin_trgm_ops);
+--rollback DROP INDEX news_text_trgm_idx;
+--rollback DROP INDEX news_title_trgm_idx;
+
+--changeset dudkomikhail:7
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE news_id_seq INCREMENT BY 50;
+ALTER SEQUENCE comments_id_seq INCREMENT BY 50;
+--rollback ALTER SEQUENCE comments_id_seq INCREMENT BY 1;
+--rollback ALTER SEQUENCE news_id_seq INCREMENT BY 1;
+--rollback ALTER SEQUENCE users_id_seq INCREMENT BY 1;
+
+--changeset dudkomikhail:8
+CREATE INDEX IF NOT EXISTS news_inserted_by_id_creation_date_id_idx
+    ON news (inserted_by_id, creation_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS comments_news_id_creation_date_id_idx
+    ON comments (news_id, creation_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS comments_inserted_by_id_creation_date_id_idx
+    ON comments (inserted_by_id, creation_date DESC, id DESC);
+--rollback DROP INDEX comments_inserted_by_id_creation_date_id_idx;
+--rollback DROP INDEX comments_news_id_creation_date_id_idx;
+--rollback DROP INDEX news_inserted_by_id_creation_date_id_idx;
+
+--changeset dudkomikhail:9
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE news ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE comments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+--rollback ALTER TABLE comments DROP COLUMN version;
+--rollback ALTER TABLE news DROP COLUMN version;
+--rollback ALTER TABLE users DROP COLUMN version;
+
+--changeset dudkomikhail:10
+ALTER TABLE news ADD COLUMN is_deleted BOOLEAN NOT NULL DEFAULT FALSE;
+CREATE INDEX IF NOT EXISTS news_deleted_id_idx ON news (id) WHERE is_deleted;
+--rollback DROP INDEX news_deleted_id_idx;
+--rollback ALTER TABLE news DROP COLUMN is_deleted;
+
+--changeset dudkomikhail:11
+ALTER TABLE news ADD COLUMN comment_count BIGINT NOT NULL DEFAULT 0;
+UPDATE news n SET comment_count = (SELECT count(*) FROM comments c WHERE c.news_id = n.id);
+--rollback ALTER TABLE news DROP COLUMN comment_count;
@@ -0,0 +1,230 @@
+package by.dudko.newsportal.datasource;
+
+import by.dudko.newsportal.dto.user.UserDetailsImpl;
+import by.dudko.newsportal.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReadWriteRoutingDataSourceTest {
+    private static final long USER_ID = 1L;
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource firstReplica;
+
+    @Mock
+    private DataSource secondReplica;
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", firstReplica);
+        replicas.put("replica-1", secondReplica);
+        routingDataSource = new ReadWriteRoutingDataSource(primary, replicas, Duration.ofMinutes(1),
+                Duration.ofSeconds(1), Duration.ofSeconds(10));
+        routingDataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        List.copyOf(TransactionSynchronizationManager.getResourceMap().keySet())
+                .forEach(TransactionSynchronizationManager::unbindResource);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsAreSpreadOverReplicas() throws SQLException {
+        Connection first = connectionOf(firstReplica);
+        Connection second = connectionOf(secondReplica);
+        inTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(first);
+        assertThat(routingDataSource.getConnection()).isSameAs(second);
+        assertThat(routingDataSource.getConnection()).isSameAs(first);
+    }
+
+    @Test
+    void writeTransactionGoesToPrimary() throws SQLException {
+        Connection connection = connectionOf(primary);
+        inTransaction(false);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(connection);
+    }
+
+    @Test
+    void workOutsideTransactionGoesToPrimary() throws SQLException {
+        Connection connection = connectionOf(primary);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(connection);
+    }
+
+    @Test
+    void readsOfRecentWriterGoToPrimary() throws SQLException {
+        Connection connection = connectionOf(primary);
+        authenticate();
+        inTransaction(false);
+        TransactionSynchronizationManager.initSynchronization();
+        routingDataSource.getConnection();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        inTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(connection);
+    }
+
+    @Test
+    void writerIsNotMarkedBeforeCommit() throws SQLException {
+        connectionOf(primary);
+        Connection replicaConnection = connectionOf(firstReplica);
+        authenticate();
+        inTransaction(false);
+        TransactionSynchronizationManager.initSynchronization();
+        routingDataSource.getConnection();
+        TransactionSynchronizationManager.clearSynchronization(); // rolled back
+
+        inTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void readOnlyTransactionOnPrimaryWhenRequired() throws SQLException {
+        Connection connection = connectionOf(primary);
+        inTransaction(true);
+
+        assertThat(ReadWriteRoutingDataSource.onPrimary(this::getConnection)).isSameAs(connection);
+    }
+
+    @Test
+    void replicaReadSkipsSecondLevelCachePuts() throws SQLException {
+        connectionOf(firstReplica);
+        Session session = bindSession();
+        inTransaction(true);
+
+        routingDataSource.getConnection();
+
+        verify(session).setCacheMode(CacheMode.GET);
+    }
+
+    @Test
+    void primaryReadKeepsSecondLevelCachePuts() throws SQLException {
+        connectionOf(primary);
+        Session session = bindSession();
+        inTransaction(true);
+
+        ReadWriteRoutingDataSource.onPrimary(this::getConnection);
+
+        verifyNoInteractions(session);
+    }
+
+    @Test
+    void unhealthyReplicaIsSkipped() throws SQLException {
+        Connection healthCheckConnection = connectionOf(firstReplica);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(healthCheckConnection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(0.0);
+        when(secondReplica.getConnection()).thenThrow(new SQLException("connection refused"));
+        routingDataSource.checkReplicas();
+        inTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(healthCheckConnection);
+        assertThat(routingDataSource.getConnection()).isSameAs(healthCheckConnection);
+    }
+
+    @Test
+    void laggingReplicaIsSkipped() throws SQLException {
+        Connection primaryConnection = connectionOf(primary);
+        for (DataSource replica : new DataSource[]{firstReplica, secondReplica}) {
+            Connection connection = connectionOf(replica);
+            PreparedStatement statement = mock(PreparedStatement.class);
+            ResultSet resultSet = mock(ResultSet.class);
+            when(connection.prepareStatement(anyString())).thenReturn(statement);
+            when(statement.executeQuery()).thenReturn(resultSet);
+            when(resultSet.next()).thenReturn(true);
+            when(resultSet.getDouble(1)).thenReturn(60.0);
+        }
+        routingDataSource.checkReplicas();
+        inTransaction(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    private Connection getConnection() {
+        try {
+            return routingDataSource.getConnection();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Session bindSession() {
+        EntityManager entityManager = mock(EntityManager.class);
+        Session session = mock(Session.class);
+        lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+        TransactionSynchronizationManager.bindResource(mock(EntityManagerFactory.class),
+                new EntityManagerHolder(entityManager));
+        return session;
+    }
+
+    private static Connection connectionOf(DataSource dataSource) throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return connection;
+    }
+
+    private static void inTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static void authenticate() {
+        UserDetailsImpl userDetails = UserDetailsImpl.of(USER_ID, "writer", User.Role.JOURNALIST);
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                userDetails, null, userDetails.getAuthorities()));
+    }
+}
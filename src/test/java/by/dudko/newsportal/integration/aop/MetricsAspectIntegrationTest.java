@@ -0,0 +1,66 @@
+package by.dudko.newsportal.integration.aop;
+
+import by.dudko.newsportal.exception.EntityNotFoundException;
+import by.dudko.newsportal.integration.IntegrationTest;
+import by.dudko.newsportal.service.NewsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@IntegrationTest
+@TestPropertySource(properties = "newsportal.metrics.method-timing.enabled=true")
+@RequiredArgsConstructor
+class MetricsAspectIntegrationTest {
+    private static final String TIMER_NAME = "newsportal.method.invocations";
+    private static final String ERROR_COUNTER_NAME = "newsportal.method.errors";
+    private static final String FIND_BY_ID_WITH_COMMENTS = "findByIdWithComments(long,Pageable)";
+
+    private final NewsService newsService;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    void recordServiceAndRepositoryTimings() {
+        long servicePreviousCount = countOf("NewsServiceImpl", FIND_BY_ID_WITH_COMMENTS);
+
+        newsService.findByIdWithComments(1L, Pageable.ofSize(5));
+
+        assertThat(countOf("NewsServiceImpl", FIND_BY_ID_WITH_COMMENTS)).isEqualTo(servicePreviousCount + 1);
+        assertThat(meterRegistry.find(TIMER_NAME).tag("class", "NewsRepository").timers()).isNotEmpty();
+    }
+
+    @Test
+    void recordErrors() {
+        assertThrows(EntityNotFoundException.class, () -> newsService.findByIdWithComments(-1L, Pageable.ofSize(5)));
+
+        assertThat(meterRegistry.get(ERROR_COUNTER_NAME)
+                .tag("class", "NewsServiceImpl")
+                .tag("method", FIND_BY_ID_WITH_COMMENTS)
+                .counter()
+                .count()).isPositive();
+    }
+
+    @Test
+    void recordOverloadsSeparately() {
+        long pagedPreviousCount = countOf("NewsServiceImpl", "findAllByUserId(long,Pageable)");
+        long cursorPreviousCount = countOf("NewsServiceImpl", "findAllByUserId(long,NewsCursor,int)");
+
+        newsService.findAllByUserId(1L, Pageable.ofSize(5));
+        newsService.findAllByUserId(1L, null, 5);
+        newsService.findAllByUserId(1L, null, 5);
+
+        assertThat(countOf("NewsServiceImpl", "findAllByUserId(long,Pageable)")).isEqualTo(pagedPreviousCount + 1);
+        assertThat(countOf("NewsServiceImpl", "findAllByUserId(long,NewsCursor,int)"))
+                .isEqualTo(cursorPreviousCount + 2);
+    }
+
+    private long countOf(String className, String method) {
+        Timer timer = meterRegistry.find(TIMER_NAME).tag("class", className).tag("method", method).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,71 @@
+package by.dudko.newsportal.integration.datasource;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static by.dudko.newsportal.integration.web.controller.UserDetailsProvider.JOURNALIST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the "replica" is the test database opened read-only, so a write routed to it fails like on a real standby
+@SpringBootTest(properties = {
+        "newsportal.datasource.routing.replicas[0].url=${spring.datasource.url}?options=-c%20default_transaction_read_only=on",
+        "newsportal.datasource.routing.replicas[0].username=${spring.datasource.username}",
+        "newsportal.datasource.routing.replicas[0].password=${spring.datasource.password}"
+})
+@ActiveProfiles({"test", "replicas"})
+@AutoConfigureMockMvc
+@Sql("classpath:sql/data.sql") // committed, routing needs the transactions of the request itself
+@RequiredArgsConstructor
+class ReadWriteRoutingIntegrationTest {
+    private static final long JOURNALIST_NEWS_ID = 2L;
+
+    private final MockMvc mockMvc;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void deleteTestData() {
+        jdbcTemplate.execute("DELETE FROM comments; DELETE FROM news; DELETE FROM users");
+        entityManagerFactory.getCache().evictAll(); // the cache regions are shared with the other test contexts
+    }
+
+    @Test
+    void readIsServedByReplica() throws Exception {
+        mockMvc.perform(get("/api/news/{id}", JOURNALIST_NEWS_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("id").value(JOURNALIST_NEWS_ID));
+    }
+
+    @Test
+    void writeAfterReadOnlyOwnershipCheckGoesToPrimary() throws Exception {
+        // @PreAuthorize runs the ownership check in a read-only transaction before the update in the same request
+        mockMvc.perform(put("/api/news/{id}", JOURNALIST_NEWS_ID)
+                        .with(user(JOURNALIST))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "title": "Test title",
+                                    "text": "Test text"
+                                }
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("title").value("Test title"));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT title FROM news WHERE id = ?", String.class,
+                JOURNALIST_NEWS_ID)).isEqualTo("Test title");
+    }
+}
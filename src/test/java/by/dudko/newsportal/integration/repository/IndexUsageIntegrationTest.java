@@ -0,0 +1,54 @@
+package by.dudko.newsportal.integration.repository;
+
+import by.dudko.newsportal.integration.IntegrationTest;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@RequiredArgsConstructor
+class IndexUsageIntegrationTest {
+    private final JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void disableSequentialScans() { // test tables are tiny, so the planner would prefer seq scans anyway
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "news, inserted_by_id, news_inserted_by_id_creation_date_id_idx",
+            "comments, news_id, comments_news_id_creation_date_id_idx",
+            "comments, inserted_by_id, comments_inserted_by_id_creation_date_id_idx"
+    })
+    void listingUsesCompositeIndex(String table, String column, String index) {
+        String plan = explain("SELECT * FROM %s WHERE %s = 1 ORDER BY creation_date DESC, id DESC LIMIT 20"
+                .formatted(table, column));
+
+        assertThat(plan).contains(index)
+                .doesNotContain("Sort");
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "news, inserted_by_id, news_inserted_by_id_creation_date_id_idx",
+            "comments, news_id, comments_news_id_creation_date_id_idx",
+            "comments, inserted_by_id, comments_inserted_by_id_creation_date_id_idx"
+    })
+    void foreignKeyLookupUsesCompositeIndex(String table, String column, String index) {
+        String plan = explain("SELECT count(*) FROM %s WHERE %s = 1".formatted(table, column));
+
+        assertThat(plan).contains(index);
+    }
+
+    private String explain(String query) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + query, String.class);
+        return String.join(System.lineSeparator(), plan);
+    }
+}
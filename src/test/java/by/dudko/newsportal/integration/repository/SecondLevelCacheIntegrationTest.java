@@ -0,0 +1,90 @@
+package by.dudko.newsportal.integration.repository;
+
+import by.dudko.newsportal.integration.IntegrationTest;
+import by.dudko.newsportal.repository.CommentRepository;
+import by.dudko.newsportal.repository.NewsRepository;
+import by.dudko.newsportal.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@RequiredArgsConstructor
+class SecondLevelCacheIntegrationTest {
+    private static final long NEWS_ID = 1L;
+    private static final long USER_ID = 1L;
+
+    private final NewsRepository newsRepository;
+    private final UserRepository userRepository;
+    private final CommentRepository commentRepository;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void repeatedNewsFindByIdHitsCache() {
+        newsRepository.findById(NEWS_ID);
+        entityManager.clear(); // next lookup can not be served by the persistence context
+
+        newsRepository.findById(NEWS_ID);
+
+        CacheRegionStatistics newsRegion = statistics.getDomainDataRegionStatistics("news");
+        assertThat(newsRegion.getHitCount()).isPositive();
+    }
+
+    @Test
+    void repeatedUserFindByIdHitsCache() {
+        userRepository.findById(USER_ID);
+        entityManager.clear();
+
+        userRepository.findById(USER_ID);
+
+        assertThat(statistics.getDomainDataRegionStatistics("users").getHitCount()).isPositive();
+    }
+
+    @Test
+    void repeatedListingQueryHitsQueryCache() {
+        newsRepository.findAllByOwnerId(USER_ID, PageRequest.of(0, 5));
+        entityManager.clear();
+
+        newsRepository.findAllByOwnerId(USER_ID, PageRequest.of(0, 5));
+
+        assertThat(statistics.getQueryRegionStatistics(NewsRepository.QUERY_REGION).getHitCount()).isPositive();
+    }
+
+    @Test
+    void repeatedCommentPageQueryHitsQueryCache() {
+        commentRepository.findAllViewsByNewsId(NEWS_ID, PageRequest.of(0, 5));
+        commentRepository.findAllViewsByNewsId(NEWS_ID, PageRequest.of(0, 5));
+
+        assertThat(statistics.getQueryRegionStatistics(CommentRepository.QUERY_REGION).getHitCount()).isPositive();
+    }
+
+    @Test
+    void regionsAreConfiguredFromEhcacheXml() throws MalformedObjectNameException {
+        // statistics MBeans are only registered when enabled in ehcache.xml
+        for (String region : new String[]{"users", "news", "comments", "news-queries", "comment-queries"}) {
+            ObjectName name = new ObjectName("javax.cache:type=CacheStatistics,CacheManager=*,Cache=" + region);
+            assertThat(ManagementFactory.getPlatformMBeanServer().queryNames(name, null)).isNotEmpty();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package by.dudko.newsportal.integration.service;
+
+import by.dudko.newsportal.integration.IntegrationTest;
+import by.dudko.newsportal.service.CommentCountService;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@RequiredArgsConstructor
+class CommentCountServiceIntegrationTest {
+    private static final long NEWS_ID = 1L;
+
+    private final CommentCountService commentCountService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reconcileRepairsDriftedCounts() {
+        long commentCount = countCommentsOfNews();
+        jdbcTemplate.update("UPDATE news SET comment_count = 0 WHERE id IN (?, 20)", NEWS_ID);
+
+        long repaired = commentCountService.reconcile();
+
+        assertThat(repaired).isEqualTo(2);
+        assertThat(findCommentCount()).isEqualTo(commentCount);
+    }
+
+    @Test
+    void reconcileWithoutDrift() {
+        assertThat(commentCountService.reconcile()).isZero();
+    }
+
+    private long findCommentCount() {
+        return jdbcTemplate.queryForObject("SELECT comment_count FROM news WHERE id = ?", Long.class, NEWS_ID);
+    }
+
+    private long countCommentsOfNews() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM comments WHERE news_id = ?", Long.class, NEWS_ID);
+    }
+}
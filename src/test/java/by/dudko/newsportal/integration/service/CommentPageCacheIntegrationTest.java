@@ -0,0 +1,107 @@
+package by.dudko.newsportal.integration.service;
+
+import by.dudko.newsportal.dto.comment.CommentCreateEditDto;
+import by.dudko.newsportal.dto.comment.CommentReadDto;
+import by.dudko.newsportal.integration.IntegrationTest;
+import by.dudko.newsportal.integration.TestConfigurationWithFakeAuditorAware;
+import by.dudko.newsportal.service.CommentService;
+import by.dudko.newsportal.service.NewsService;
+import by.dudko.newsportal.service.UserService;
+import by.dudko.newsportal.service.impl.CommentPageCache;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest(classes = TestConfigurationWithFakeAuditorAware.class)
+@TestPropertySource(properties = "newsportal.comment-pages.enabled=true")
+@RequiredArgsConstructor
+class CommentPageCacheIntegrationTest {
+    private static final long NEWS_ID = 1L; // comments 1 to 10, owned by user 1
+    private static final long OTHER_NEWS_ID = 2L;
+    private static final long COMMENT_ID = 1L;
+    private static final long OWNER_ID = 1L;
+    private static final Pageable FIRST_PAGE = Pageable.ofSize(5);
+
+    private final CommentPageCache commentPageCache;
+    private final CommentService commentService;
+    private final NewsService newsService;
+    private final UserService userService;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void clearCache() {
+        commentPageCache.evictAll();
+    }
+
+    @Test
+    void repeatedPageIsServedFromCache() {
+        findFirstPage(NEWS_ID);
+        findFirstPage(NEWS_ID);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void commentCreationDropsPagesOfItsNews() {
+        findFirstPage(NEWS_ID);
+
+        commentService.saveByNewsId(NEWS_ID, CommentCreateEditDto.of("Fresh comment"));
+        findFirstPage(NEWS_ID);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void commentDeletionDropsPagesOfItsNews() {
+        findFirstPage(NEWS_ID);
+
+        commentService.deleteById(COMMENT_ID);
+        findFirstPage(NEWS_ID);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void commentOfOtherNewsKeepsPages() {
+        findFirstPage(NEWS_ID);
+
+        commentService.saveByNewsId(OTHER_NEWS_ID, CommentCreateEditDto.of("Fresh comment"));
+        findFirstPage(NEWS_ID);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void newsTombstoneDropsItsPages() {
+        findFirstPage(NEWS_ID);
+
+        newsService.deleteById(NEWS_ID);
+        findFirstPage(NEWS_ID);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void userDeletionDropsPages() {
+        findFirstPage(NEWS_ID);
+
+        userService.deleteById(OWNER_ID);
+        findFirstPage(NEWS_ID);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private List<CommentReadDto> findFirstPage(long newsId) {
+        return commentPageCache.findPage(newsId, FIRST_PAGE, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+    }
+}
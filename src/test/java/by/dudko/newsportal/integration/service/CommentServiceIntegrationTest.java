@@ -10,11 +10,13 @@ import by.dudko.newsportal.model.Comment;
 import by.dudko.newsportal.model.News;
 import by.dudko.newsportal.model.User;
 import by.dudko.newsportal.repository.CommentRepository;
+import by.dudko.newsportal.repository.NewsRepository;
 import by.dudko.newsportal.service.CommentService;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.List;
 
@@ -40,6 +42,8 @@ class CommentServiceIntegrationTest {
 
     private final CommentService commentService;
     private final CommentRepository commentRepository;
+    private final NewsRepository newsRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     @Test
     void findAllByUserId() {
@@ -145,6 +149,15 @@ class CommentServiceIntegrationTest {
         );
     }
 
+    @Test
+    void saveByNewsIdIncrementsCommentCount() {
+        long commentCount = findCommentCount(NEWS_ID);
+
+        commentService.saveByNewsId(NEWS_ID, CommentCreateEditDto.of("Amazing ideas"));
+
+        assertThat(findCommentCount(NEWS_ID)).isEqualTo(commentCount + 1);
+    }
+
     @Test
     void saveByNewsIdWithNonExistentNewsId() {
         CommentCreateEditDto newComment = CommentCreateEditDto.of("Amazing ideas");
@@ -182,10 +195,60 @@ class CommentServiceIntegrationTest {
         assertThat(commentRepository.findById(COMMENT_ID)).isEmpty();
     }
 
+    @Test
+    void deleteByIdDecrementsCommentCount() {
+        long newsId = 1L;
+        long commentCount = findCommentCount(newsId);
+
+        commentService.deleteById(COMMENT_ID);
+
+        assertThat(findCommentCount(newsId)).isEqualTo(commentCount - 1);
+    }
+
     @Test
     void deleteByIdWithNonExistentCommentId() {
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
                 () -> commentService.deleteById(NON_EXISTENT_COMMENT_ID));
         assertThat(exception.getMessage()).isEqualTo(COMMENT_NOT_FOUND_MESSAGE);
     }
+
+    @Test
+    void findByIdOfTombstonedNews() {
+        tombstoneNewsOfComment(COMMENT_ID);
+
+        assertThrows(EntityNotFoundException.class, () -> commentService.findById(COMMENT_ID));
+    }
+
+    @Test
+    void updateByIdOfTombstonedNews() {
+        tombstoneNewsOfComment(COMMENT_ID);
+        var updateDto = CommentCreateEditDto.of("Amazing text");
+
+        assertThrows(EntityNotFoundException.class, () -> commentService.updateById(COMMENT_ID, updateDto));
+    }
+
+    @Test
+    void findAllByUserIdSkipsTombstonedNews() {
+        long newsId = tombstoneNewsOfComment(COMMENT_ID);
+        long hiddenComments = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM comments WHERE news_id = ? AND inserted_by_id = ?", Long.class, newsId, USER_ID);
+
+        PageResponse<CommentReadDto> response = commentService.findAllByUserId(USER_ID, PageRequest.ofSize(100));
+
+        assertAll(
+                () -> assertThat(response.getMetadata().getTotalElements()).isEqualTo(82 - hiddenComments),
+                () -> assertThat(response.getContent()).noneMatch(comment -> comment.getId() == COMMENT_ID)
+        );
+    }
+
+    private long tombstoneNewsOfComment(long commentId) {
+        long newsId = jdbcTemplate.queryForObject("SELECT news_id FROM comments WHERE id = ?", Long.class, commentId);
+        newsRepository.deleteById(newsId); // soft delete, the comments stay until the purge
+        newsRepository.flush();
+        return newsId;
+    }
+
+    private long findCommentCount(long newsId) {
+        return jdbcTemplate.queryForObject("SELECT comment_count FROM news WHERE id = ?", Long.class, newsId);
+    }
 }
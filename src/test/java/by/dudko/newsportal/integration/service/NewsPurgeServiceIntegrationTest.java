@@ -0,0 +1,66 @@
+package by.dudko.newsportal.integration.service;
+
+import by.dudko.newsportal.dto.news.NewsPurgeProgress;
+import by.dudko.newsportal.integration.IntegrationTest;
+import by.dudko.newsportal.integration.TestConfigurationWithFakeAuditorAware;
+import by.dudko.newsportal.repository.NewsRepository;
+import by.dudko.newsportal.service.NewsPurgeService;
+import by.dudko.newsportal.service.NewsService;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest(classes = TestConfigurationWithFakeAuditorAware.class)
+@RequiredArgsConstructor
+class NewsPurgeServiceIntegrationTest {
+    private static final long NEWS_ID = 1L;
+
+    private final NewsService newsService;
+    private final NewsPurgeService newsPurgeService;
+    private final NewsRepository newsRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deleteByIdLeavesHiddenTombstone() {
+        long commentCount = countCommentsOfNews();
+
+        newsService.deleteById(NEWS_ID);
+
+        assertThat(newsRepository.findById(NEWS_ID)).isEmpty();
+        assertThat(newsRepository.existsById(NEWS_ID)).isFalse();
+        assertThat(countNewsRows()).isOne();
+        assertThat(countCommentsOfNews()).isEqualTo(commentCount);
+    }
+
+    @Test
+    void purgeRemovesCommentsAndTombstone() {
+        long commentCount = countCommentsOfNews();
+        newsService.deleteById(NEWS_ID);
+
+        NewsPurgeProgress progress = newsPurgeService.purge();
+
+        assertThat(progress).isEqualTo(new NewsPurgeProgress(commentCount, 1, 0));
+        assertThat(countNewsRows()).isZero();
+        assertThat(countCommentsOfNews()).isZero();
+    }
+
+    @Test
+    void purgeWithoutTombstones() {
+        long newsCount = newsRepository.count();
+
+        NewsPurgeProgress progress = newsPurgeService.purge();
+
+        assertThat(progress).isEqualTo(new NewsPurgeProgress(0, 0, 0));
+        assertThat(newsRepository.count()).isEqualTo(newsCount);
+    }
+
+    private long countNewsRows() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM news WHERE id = ?", Long.class, NEWS_ID);
+    }
+
+    private long countCommentsOfNews() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM comments WHERE news_id = ?", Long.class, NEWS_ID);
+    }
+}
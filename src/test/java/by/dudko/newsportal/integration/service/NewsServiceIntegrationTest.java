@@ -1,9 +1,12 @@
 package by.dudko.newsportal.integration.service;
 
+import by.dudko.newsportal.dto.CursorPageResponse;
 import by.dudko.newsportal.dto.PageResponse;
 import by.dudko.newsportal.dto.PageResponse.Metadata;
+import by.dudko.newsportal.dto.SliceResponse;
 import by.dudko.newsportal.dto.comment.CommentReadDto;
 import by.dudko.newsportal.dto.news.NewsCreateEditDto;
+import by.dudko.newsportal.dto.news.NewsCursor;
 import by.dudko.newsportal.dto.news.NewsFilter;
 import by.dudko.newsportal.dto.news.NewsReadDto;
 import by.dudko.newsportal.exception.EntityNotFoundException;
@@ -75,6 +78,7 @@ class NewsServiceIntegrationTest {
                 .id(3)
                 .title("news3")
                 .text("text3")
+                .commentCount(10)
                 .build();
 
         PageResponse<NewsReadDto> response = newsService.findAllByFilter(titleFilter, PageRequest.ofSize(5));
@@ -129,6 +133,7 @@ class NewsServiceIntegrationTest {
                 .id(20)
                 .title("news20")
                 .text("text20")
+                .commentCount(10)
                 .build();
 
         PageResponse<NewsReadDto> response = newsService.findAllByFilter(newsFilter, PageRequest.ofSize(5));
@@ -142,6 +147,156 @@ class NewsServiceIntegrationTest {
         );
     }
 
+    @Test
+    void findAllByFilterKeepsLikeWildcards() {
+        NewsFilter wildcardFilter = NewsFilter.builder()
+                .title("news_")
+                .text("%")
+                .build();
+
+        PageResponse<NewsReadDto> response = newsService.findAllByFilter(wildcardFilter, PageRequest.ofSize(5));
+
+        assertThat(response.getMetadata().getTotalElements()).isEqualTo(11); // news10 to news20
+    }
+
+    @Test
+    void findAllByFilterWithBlankTitle() {
+        NewsFilter blankFilter = NewsFilter.builder()
+                .title(" ")
+                .build();
+
+        PageResponse<NewsReadDto> response = newsService.findAllByFilter(blankFilter, PageRequest.ofSize(5));
+
+        assertThat(response.getMetadata().getTotalElements()).isZero(); // no title contains a space
+    }
+
+    @Test
+    void findAllByFilterWithFullTextQuery() {
+        NewsFilter searchFilter = NewsFilter.builder()
+                .q("news3 or text7")
+                .build();
+
+        PageResponse<NewsReadDto> response = newsService.findAllByFilter(searchFilter, PageRequest.ofSize(5));
+
+        assertThat(response.getMetadata().getTotalElements()).isEqualTo(2);
+        assertThat(response.getContent()).map(NewsReadDto::getId).containsExactlyInAnyOrder(3L, 7L);
+    }
+
+    @Test
+    void findAllByFilterWithFullTextQueryAndTitleFiltration() {
+        NewsFilter searchFilter = NewsFilter.builder()
+                .q("news3 or text7")
+                .title("ws7")
+                .build();
+
+        PageResponse<NewsReadDto> response = newsService.findAllByFilter(searchFilter, PageRequest.ofSize(5));
+
+        assertThat(response.getContent()).map(NewsReadDto::getId).containsExactly(7L);
+    }
+
+    @Test
+    void findAllByFilterWithCursor() {
+        NewsFilter emptyFilter = NewsFilter.builder().build();
+
+        CursorPageResponse<NewsReadDto> firstPage = newsService.findAllByFilter(emptyFilter, null, 5);
+        CursorPageResponse<NewsReadDto> secondPage = newsService.findAllByFilter(emptyFilter,
+                NewsCursor.valueOf(firstPage.getMetadata().getNext()), 5);
+
+        assertAll(
+                () -> assertThat(firstPage.getContent()).map(NewsReadDto::getId).containsExactly(6L, 3L, 5L, 8L, 15L),
+                () -> assertThat(firstPage.getMetadata().isHasNext()).isTrue(),
+                () -> assertThat(secondPage.getContent()).map(NewsReadDto::getId).containsExactly(12L, 14L, 7L, 2L, 17L),
+                () -> assertThat(secondPage.getMetadata().isHasNext()).isTrue()
+        );
+    }
+
+    @Test
+    void findAllByFilterWithCursorOnLastPage() {
+        NewsFilter titleFilter = NewsFilter.builder()
+                .title("ws2")
+                .build();
+
+        CursorPageResponse<NewsReadDto> response = newsService.findAllByFilter(titleFilter, null, 5);
+
+        assertAll(
+                () -> assertThat(response.getContent()).map(NewsReadDto::getId).containsExactly(2L, 20L),
+                () -> assertThat(response.getMetadata().isHasNext()).isFalse(),
+                () -> assertThat(response.getMetadata().getNext()).isNull()
+        );
+    }
+
+    @Test
+    void findSliceByFilter() {
+        SliceResponse<NewsReadDto> response = newsService.findSliceByFilter(NewsFilter.builder().build(),
+                PageRequest.ofSize(5));
+
+        assertThat(response.getContent()).hasSize(5);
+        assertTrue(response.getMetadata().isHasNext());
+    }
+
+    @Test
+    void findSliceByFilterOnLastPage() {
+        SliceResponse<NewsReadDto> response = newsService.findSliceByFilter(NewsFilter.builder().build(),
+                PageRequest.of(3, 5));
+
+        assertThat(response.getContent()).hasSize(5);
+        assertFalse(response.getMetadata().isHasNext());
+    }
+
+    @Test
+    void findSliceByFilterWithFullTextQuery() {
+        NewsFilter filter = NewsFilter.builder()
+                .q("news1")
+                .build();
+
+        SliceResponse<NewsReadDto> response = newsService.findSliceByFilter(filter, PageRequest.ofSize(5));
+
+        assertThat(response.getContent()).extracting(NewsReadDto::getTitle).containsExactly("news1");
+        assertFalse(response.getMetadata().isHasNext());
+    }
+
+    @Test
+    void findAllByFilterWithEstimatedTotalOnLastPage() {
+        Metadata expectedMetadata = Metadata.builder()
+                .page(3)
+                .size(6)
+                .numberOfElements(2)
+                .totalElements(20) // exact, the last page needs no estimate
+                .totalPages(4)
+                .estimated(true)
+                .build();
+
+        PageResponse<NewsReadDto> response = newsService.findAllByFilterWithEstimatedTotal(
+                NewsFilter.builder().build(), PageRequest.of(3, 6));
+
+        assertThat(response.getMetadata()).isEqualTo(expectedMetadata);
+    }
+
+    @Test
+    void findAllByFilterWithEstimatedTotalAndTitleFiltration() {
+        NewsFilter filter = NewsFilter.builder()
+                .title("news1")
+                .build();
+
+        PageResponse<NewsReadDto> response = newsService.findAllByFilterWithEstimatedTotal(filter,
+                PageRequest.ofSize(5));
+
+        assertFalse(response.getMetadata().isEstimated());
+        assertThat(response.getMetadata().getTotalElements()).isEqualTo(11);
+    }
+
+    @Test
+    void findAllByUserIdWithCursor() {
+        CursorPageResponse<NewsReadDto> firstPage = newsService.findAllByUserId(1L, null, 4);
+        CursorPageResponse<NewsReadDto> secondPage = newsService.findAllByUserId(1L,
+                NewsCursor.valueOf(firstPage.getMetadata().getNext()), 4);
+
+        assertAll(
+                () -> assertThat(firstPage.getContent()).map(NewsReadDto::getId).containsExactly(3L, 5L, 15L, 7L),
+                () -> assertThat(secondPage.getContent()).map(NewsReadDto::getId).containsExactly(17L, 11L, 13L, 9L)
+        );
+    }
+
     @Test
     void findAllByUserId() {
         Metadata expectedMetadata = Metadata.builder()
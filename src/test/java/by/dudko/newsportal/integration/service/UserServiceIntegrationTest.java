@@ -9,11 +9,13 @@ import by.dudko.newsportal.exception.UniqueConstraintViolationException;
 import by.dudko.newsportal.integration.IntegrationTest;
 import by.dudko.newsportal.integration.TestConfigurationWithFakeAuditorAware;
 import by.dudko.newsportal.model.User;
+import by.dudko.newsportal.repository.NewsRepository;
 import by.dudko.newsportal.repository.UserRepository;
 import by.dudko.newsportal.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.List;
@@ -38,6 +40,7 @@ class UserServiceIntegrationTest {
 
     private final UserService userService;
     private final UserRepository userRepository;
+    private final NewsRepository newsRepository;
     private final PasswordEncoder passwordEncoder;
 
     @Test
@@ -188,6 +191,17 @@ class UserServiceIntegrationTest {
         deletedUser.ifPresent(user -> assertTrue(user.isDeleted()));
     }
 
+    @Test
+    void deleteByIdRemovesAllNewsOfUser() {
+        assertThat(newsRepository.findAllByOwnerId(USER_ID, Pageable.unpaged()).getTotalElements())
+                .isGreaterThan(2);
+
+        userService.deleteById(USER_ID);
+
+        assertThat(newsRepository.findAllByOwnerId(USER_ID, Pageable.unpaged())).isEmpty();
+        assertThat(newsRepository.count()).isPositive();
+    }
+
     @Test
     void deleteByIdWithNonExistentUserId() {
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
@@ -0,0 +1,215 @@
+package by.dudko.newsportal.integration.web;
+
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.CommentChangedEvent;
+import by.dudko.newsportal.event.NewsChangedEvent;
+import by.dudko.newsportal.event.NewsImportedEvent;
+import by.dudko.newsportal.integration.IntegrationTest;
+import by.dudko.newsportal.web.cache.ResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static by.dudko.newsportal.integration.web.controller.UserDetailsProvider.ADMIN;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "newsportal.web.response-cache.enabled=true",
+        "newsportal.web.response-cache.gzip-min-size=16"
+})
+@RequiredArgsConstructor
+class ResponseCacheIntegrationTest {
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+    private static final long NEWS_ID = 1L;
+    private static final long OWNER_ID = 1L;
+
+    private final MockMvc mockMvc;
+    private final ResponseCache responseCache;
+
+    @AfterEach
+    void clearCache() {
+        responseCache.evictAll();
+    }
+
+    @Test
+    void repeatedAnonymousReadIsServedFromCache() throws Exception {
+        String body = mockMvc.perform(get("/api/news/{id}", NEWS_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CACHE_STATUS_HEADER, "MISS"))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/news/{id}", NEWS_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CACHE_STATUS_HEADER, "HIT"))
+                .andExpect(result -> assertThat(result.getResponse().getContentAsString()).isEqualTo(body));
+    }
+
+    @Test
+    void cachedResponseHonorsETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/news/{id}", NEWS_ID))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/news/{id}", NEWS_ID).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(CACHE_STATUS_HEADER, "HIT"));
+        mockMvc.perform(get("/api/news/{id}", NEWS_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+    }
+
+    @Test
+    void parameterOrderDoesNotMatter() throws Exception {
+        mockMvc.perform(get("/api/news?page=0&size=5"))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "MISS"));
+
+        mockMvc.perform(get("/api/news?size=5&page=0"))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "HIT"));
+    }
+
+    @Test
+    void gzippedBodyIsServedWhenAccepted() throws Exception {
+        String body = mockMvc.perform(get("/api/news"))
+                .andReturn().getResponse().getContentAsString();
+
+        MvcResult result = mockMvc.perform(get("/api/news").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "HIT"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        assertThat(gunzip(result.getResponse().getContentAsByteArray())).isEqualTo(body);
+    }
+
+    @Test
+    void gzippedBodyHasItsOwnETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/news/{id}", NEWS_ID))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String gzipETag = mockMvc.perform(get("/api/news/{id}", NEWS_ID).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(gzipETag).isNotEqualTo(eTag);
+        mockMvc.perform(get("/api/news/{id}", NEWS_ID).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/news/{id}", NEWS_ID).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipETag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void gzipWithZeroQualityIsRefused() throws Exception {
+        mockMvc.perform(get("/api/news"));
+
+        mockMvc.perform(get("/api/news").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "HIT"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get("/api/news").header(HttpHeaders.ACCEPT_ENCODING, "*;q=0.5"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    void authenticatedReadIsNotCached() throws Exception {
+        mockMvc.perform(get("/api/news/{id}", NEWS_ID).with(user(ADMIN)))
+                .andExpect(header().doesNotExist(CACHE_STATUS_HEADER));
+
+        mockMvc.perform(get("/api/news/{id}", NEWS_ID))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "MISS"));
+    }
+
+    @Test
+    void commentChangeEvictsOnlyAffectedNews() throws Exception {
+        mockMvc.perform(get("/api/news/{id}", NEWS_ID));
+        mockMvc.perform(get("/api/news/{id}", 2L));
+
+        responseCache.onCommentChanged(new CommentChangedEvent(1L, NEWS_ID, OWNER_ID, ChangeType.CREATED));
+
+        mockMvc.perform(get("/api/news/{id}", NEWS_ID))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "MISS"));
+        mockMvc.perform(get("/api/news/{id}", 2L))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "HIT"));
+    }
+
+    @Test
+    void commentCreationEvictsListings() throws Exception {
+        mockMvc.perform(get("/api/news"));
+        mockMvc.perform(get("/api/users/{userId}/news", OWNER_ID));
+
+        responseCache.onCommentChanged(new CommentChangedEvent(1L, NEWS_ID, 3L, ChangeType.CREATED));
+
+        mockMvc.perform(get("/api/news"))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "MISS"));
+        mockMvc.perform(get("/api/users/{userId}/news", OWNER_ID))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "MISS"));
+    }
+
+    @Test
+    void commentUpdateKeepsListings() throws Exception {
+        mockMvc.perform(get("/api/news"));
+
+        responseCache.onCommentChanged(new CommentChangedEvent(1L, NEWS_ID, 3L, ChangeType.UPDATED));
+
+        mockMvc.perform(get("/api/news"))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "HIT"));
+    }
+
+    @Test
+    void newsChangeEvictsListings() throws Exception {
+        mockMvc.perform(get("/api/news"));
+        mockMvc.perform(get("/api/users/{userId}/news", OWNER_ID));
+
+        responseCache.onNewsChanged(new NewsChangedEvent(NEWS_ID, OWNER_ID, ChangeType.UPDATED));
+
+        mockMvc.perform(get("/api/news"))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "MISS"));
+        mockMvc.perform(get("/api/users/{userId}/news", OWNER_ID))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "MISS"));
+    }
+
+    @Test
+    void newsImportEvictsListingsOfImporter() throws Exception {
+        mockMvc.perform(get("/api/news"));
+        mockMvc.perform(get("/api/users/{userId}/news", OWNER_ID));
+        mockMvc.perform(get("/api/users/{userId}/news", 2L));
+
+        responseCache.onNewsImported(new NewsImportedEvent(OWNER_ID, 2));
+
+        mockMvc.perform(get("/api/news"))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "MISS"));
+        mockMvc.perform(get("/api/users/{userId}/news", OWNER_ID))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "MISS"));
+        mockMvc.perform(get("/api/users/{userId}/news", 2L))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "HIT"));
+    }
+
+    @Test
+    void notFoundIsNotCached() throws Exception {
+        mockMvc.perform(get("/api/news/{id}", -1L))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/news/{id}", -1L))
+                .andExpect(header().string(CACHE_STATUS_HEADER, "MISS"));
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package by.dudko.newsportal.integration.web.controller;
+
+import by.dudko.newsportal.integration.IntegrationTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc
+@RequiredArgsConstructor
+class AuthRestControllerIntegrationTest {
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+
+    @Test
+    void issueToken() throws Exception {
+        mockMvc.perform(post("/api/auth/token").with(httpBasic("journalist", "1111")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpectAll(
+                        jsonPath("accessToken").isString(),
+                        jsonPath("tokenType").value("Bearer"),
+                        jsonPath("expiresIn").value(900)
+                );
+    }
+
+    @Test
+    void issueTokenWithInvalidCredentials() throws Exception {
+        mockMvc.perform(post("/api/auth/token").with(httpBasic("journalist", "2222")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void issueTokenWithAccessToken() throws Exception {
+        mockMvc.perform(post("/api/auth/token")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + issueToken("journalist")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void accessWithToken() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", 1L)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + issueToken("admin")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("username").value("admin"));
+    }
+
+    @Test
+    void accessWithTokenOfAnotherUser() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", 1L)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + issueToken("subscriber")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void accessWithInvalidToken() throws Exception {
+        String token = issueToken("admin");
+        mockMvc.perform(get("/api/users/{id}", 1L)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.substring(0, token.length() - 2)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+    }
+
+    private String issueToken(String username) throws Exception {
+        String response = mockMvc.perform(post("/api/auth/token").with(httpBasic(username, "1111")))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readTree(response).get("accessToken").asText();
+    }
+}
@@ -1,10 +1,12 @@
 package by.dudko.newsportal.integration.web.controller;
 
 import by.dudko.newsportal.integration.IntegrationTest;
+import by.dudko.newsportal.model.Comment;
 import by.dudko.newsportal.repository.CommentRepository;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -17,6 +19,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -45,6 +48,44 @@ class CommentRestControllerIntegrationTest {
                         """));
     }
 
+    @Test
+    void findByIdWithMatchingETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/comments/{id}", COMMENT_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/comments/{id}", COMMENT_ID).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void findByIdWithStaleETag() throws Exception {
+        mockMvc.perform(get("/api/comments/{id}", COMMENT_ID).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void findByIdNotModifiedSince() throws Exception {
+        String lastModified = mockMvc.perform(get("/api/comments/{id}", COMMENT_ID))
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        mockMvc.perform(get("/api/comments/{id}", COMMENT_ID).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void findAllByNewsIdWithMatchingETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/news/{newsId}/comments", 1L))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/news/{newsId}/comments", 1L).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void findByIdWithNonExistentCommentId() throws Exception {
         mockMvc.perform(get("/api/comments/{id}", NON_EXISTENT_COMMENT_ID)
@@ -166,6 +207,52 @@ class CommentRestControllerIntegrationTest {
                         """));
     }
 
+    @Test
+    void updateWithMatchingIfMatch() throws Exception {
+        mockMvc.perform(put("/api/comments/{id}", COMMENT_ID)
+                        .with(user(ADMIN))
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "text": "Interesting text!"
+                                }
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+    }
+
+    @Test
+    void updateWithStaleIfMatch() throws Exception {
+        mockMvc.perform(put("/api/comments/{id}", COMMENT_ID)
+                        .with(user(ADMIN))
+                        .header(HttpHeaders.IF_MATCH, "\"5\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "text": "Interesting text!"
+                                }
+                                """))
+                .andExpect(status().isPreconditionFailed());
+        assertThat(commentRepository.findById(COMMENT_ID)).get()
+                .extracting(Comment::getText)
+                .isNotEqualTo("Interesting text!");
+    }
+
+    @Test
+    void updateWithWeakIfMatch() throws Exception {
+        mockMvc.perform(put("/api/comments/{id}", COMMENT_ID)
+                        .with(user(ADMIN))
+                        .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "text": "Interesting text!"
+                                }
+                                """))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void updateWithNonExistentCommentId() throws Exception {
         mockMvc.perform(put("/api/comments/{id}", NON_EXISTENT_COMMENT_ID)
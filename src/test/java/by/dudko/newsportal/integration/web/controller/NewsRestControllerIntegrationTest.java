@@ -6,6 +6,7 @@ import by.dudko.newsportal.repository.NewsRepository;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -13,13 +14,17 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import java.util.Optional;
 
 import static by.dudko.newsportal.integration.web.controller.UserDetailsProvider.ADMIN;
+import static by.dudko.newsportal.integration.web.controller.UserDetailsProvider.JOURNALIST;
+import static by.dudko.newsportal.integration.web.controller.UserDetailsProvider.SUBSCRIBER;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -67,6 +72,61 @@ class NewsRestControllerIntegrationTest {
                 );
     }
 
+    @Test
+    void findAllWithCursorPaging() throws Exception {
+        mockMvc.perform(get("/api/news")
+                        .param("paging", "cursor")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("content", hasSize(5)))
+                .andExpect(jsonPath("content[0].id").value(6))
+                .andExpectAll(
+                        jsonPath("metadata.size").value(5),
+                        jsonPath("metadata.numberOfElements").value(5),
+                        jsonPath("metadata.hasNext").value(true),
+                        jsonPath("metadata.next").isString(),
+                        jsonPath("metadata.totalElements").doesNotExist()
+                );
+    }
+
+    @Test
+    void findAllWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/news")
+                        .param("paging", "cursor")
+                        .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findAllWithSlicePaging() throws Exception {
+        mockMvc.perform(get("/api/news")
+                        .param("paging", "slice")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", hasSize(5)))
+                .andExpectAll(
+                        jsonPath("metadata.page").value(0),
+                        jsonPath("metadata.size").value(5),
+                        jsonPath("metadata.numberOfElements").value(5),
+                        jsonPath("metadata.hasNext").value(true),
+                        jsonPath("metadata.totalElements").doesNotExist()
+                );
+    }
+
+    @Test
+    void findAllWithEstimatedPaging() throws Exception {
+        mockMvc.perform(get("/api/news")
+                        .param("paging", "estimate")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", hasSize(5)))
+                .andExpectAll(
+                        jsonPath("metadata.totalElements").isNumber(),
+                        jsonPath("metadata.estimated").value(true)
+                );
+    }
+
     @Test
     void findAllByUserId() throws Exception {
         long userId = 1L;
@@ -137,6 +197,76 @@ class NewsRestControllerIntegrationTest {
                 .andExpect(jsonPath("id").exists());
     }
 
+    @Test
+    void findByIdWithCommentsWithMatchingETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/news/{id}", NEWS_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/news/{id}", NEWS_ID).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void importNewsFromJsonArray() throws Exception {
+        mockMvc.perform(post("/api/news/bulk")
+                        .with(user(ADMIN))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [
+                                    {"title": "Cats", "text": "Facts about cats"},
+                                    {"title": "", "text": "Untitled"},
+                                    {"title": "Dogs", "text": "Facts about dogs"}
+                                ]
+                                """))
+                .andExpect(status().isOk())
+                .andExpectAll(
+                        jsonPath("received").value(3),
+                        jsonPath("created").value(2),
+                        jsonPath("rejected").value(1),
+                        jsonPath("items[0].status").value("CREATED"),
+                        jsonPath("items[0].id").exists(),
+                        jsonPath("items[1].status").value("REJECTED"),
+                        jsonPath("items[1].errors[0]").value(startsWith("title")),
+                        jsonPath("items[2].status").value("CREATED")
+                );
+        assertThat(newsRepository.count()).isEqualTo(22);
+    }
+
+    @Test
+    void importNewsFromNdjson() throws Exception {
+        mockMvc.perform(post("/api/news/bulk")
+                        .with(user(JOURNALIST))
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"title": "Cats", "text": "Facts about cats"}
+                                {"title": "Dogs", "text": "Facts about dogs"}
+                                {"title": "Birds",
+                                """))
+                .andExpect(status().isOk())
+                .andExpectAll(
+                        jsonPath("received").value(3),
+                        jsonPath("created").value(2),
+                        jsonPath("items", hasSize(3)),
+                        jsonPath("items[2].index").value(2),
+                        jsonPath("items[2].status").value("REJECTED")
+                );
+        assertThat(newsRepository.count()).isEqualTo(22);
+    }
+
+    @Test
+    void importNewsBySubscriber() throws Exception {
+        mockMvc.perform(post("/api/news/bulk")
+                        .with(user(SUBSCRIBER))
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"title": "Cats", "text": "Facts about cats"}
+                                """))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void createWithInvalidData() throws Exception {
         mockMvc.perform(post("/api/news")
@@ -177,6 +307,52 @@ class NewsRestControllerIntegrationTest {
         updatedNews.ifPresent(news -> assertThat(news.getUpdatedById()).isEqualTo(ADMIN.getId()));
     }
 
+    @Test
+    void updateNewsWithStaleIfMatch() throws Exception {
+        mockMvc.perform(put("/api/news/{id}", NEWS_ID)
+                        .with(user(ADMIN))
+                        .header(HttpHeaders.IF_MATCH, "\"5\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "title": "Test title",
+                                    "text": "Test text"
+                                }
+                                """))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(newsRepository.findById(NEWS_ID)).get()
+                .extracting(News::getVersion)
+                .isEqualTo(0L);
+    }
+
+    @Test
+    void updateNewsWithETagFromGet() throws Exception {
+        String eTag = mockMvc.perform(get("/api/news/{id}", NEWS_ID))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String content = """
+                {
+                    "title": "Test title",
+                    "text": "Test text"
+                }
+                """;
+
+        mockMvc.perform(put("/api/news/{id}", NEWS_ID)
+                        .with(user(ADMIN))
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(content))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("version").value(1));
+        mockMvc.perform(put("/api/news/{id}", NEWS_ID) // the tag names the representation before the update
+                        .with(user(ADMIN))
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(content))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void updateNewsWithInvalidData() throws Exception {
         mockMvc.perform(put("/api/news/{id}", NEWS_ID)
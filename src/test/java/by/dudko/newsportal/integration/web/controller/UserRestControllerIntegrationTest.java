@@ -6,6 +6,7 @@ import by.dudko.newsportal.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -153,6 +154,40 @@ class UserRestControllerIntegrationTest {
                         """));
     }
 
+    @Test
+    void updateWithMatchingIfMatch() throws Exception {
+        mockMvc.perform(put("/api/users/{id}", USER_ID)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "username": "cobra",
+                                    "name": "Mark"
+                                }
+                                """)
+                        .with(user(ADMIN)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1));
+    }
+
+    @Test
+    void updateWithStaleIfMatch() throws Exception {
+        mockMvc.perform(put("/api/users/{id}", USER_ID)
+                        .header(HttpHeaders.IF_MATCH, "\"5\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "username": "cobra",
+                                    "name": "Mark"
+                                }
+                                """)
+                        .with(user(ADMIN)))
+                .andExpect(status().isPreconditionFailed());
+        assertThat(userRepository.findById(USER_ID)).get()
+                .extracting(User::getUsername)
+                .isEqualTo("admin");
+    }
+
     @Test
     void updateTryTyAssignTakenUserName() throws Exception {
         mockMvc.perform(put("/api/users/{id}", USER_ID)
@@ -0,0 +1,75 @@
+package by.dudko.newsportal.security;
+
+import by.dudko.newsportal.dto.user.AccessTokenDto;
+import by.dudko.newsportal.dto.user.UserDetailsImpl;
+import by.dudko.newsportal.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AccessTokenServiceTest {
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final UserDetailsImpl JOURNALIST = UserDetailsImpl.of(2L, "journalist|x", User.Role.JOURNALIST);
+
+    private final AccessTokenService accessTokenService = new AccessTokenService(SECRET, Duration.ofMinutes(15));
+
+    @Test
+    void verifyIssuedToken() {
+        AccessTokenDto token = accessTokenService.issue(JOURNALIST);
+
+        Optional<UserDetailsImpl> actual = accessTokenService.verify(token.getAccessToken());
+
+        assertThat(token.getTokenType()).isEqualTo("Bearer");
+        assertThat(token.getExpiresIn()).isEqualTo(900);
+        assertThat(actual).hasValueSatisfying(userDetails -> {
+            assertThat(userDetails.getId()).isEqualTo(2L);
+            assertThat(userDetails.getUsername()).isEqualTo("journalist|x");
+            assertThat(userDetails.getRole()).isEqualTo(User.Role.JOURNALIST);
+            assertThat(userDetails.getPassword()).isNull();
+        });
+    }
+
+    @Test
+    void verifyTamperedToken() {
+        String token = accessTokenService.issue(JOURNALIST).getAccessToken();
+        String forgedPayload = new AccessTokenService(SECRET, Duration.ofDays(365))
+                .issue(UserDetailsImpl.of(2L, "journalist|x", User.Role.ADMIN))
+                .getAccessToken()
+                .split("\\.")[0];
+
+        assertThat(accessTokenService.verify(forgedPayload + token.substring(token.indexOf('.')))).isEmpty();
+    }
+
+    @Test
+    void verifyTokenSignedWithAnotherSecret() {
+        String token = new AccessTokenService("fedcba9876543210fedcba9876543210", Duration.ofMinutes(15))
+                .issue(JOURNALIST)
+                .getAccessToken();
+
+        assertThat(accessTokenService.verify(token)).isEmpty();
+    }
+
+    @Test
+    void verifyExpiredToken() {
+        String token = new AccessTokenService(SECRET, Duration.ofSeconds(-1))
+                .issue(JOURNALIST)
+                .getAccessToken();
+
+        assertThat(accessTokenService.verify(token)).isEmpty();
+    }
+
+    @Test
+    void verifyMalformedToken() {
+        assertThat(accessTokenService.verify("not-a-token")).isEmpty();
+        assertThat(accessTokenService.verify("!!!.???")).isEmpty();
+    }
+
+    @Test
+    void createWithShortSecret() {
+        assertThrows(IllegalStateException.class, () -> new AccessTokenService("short", Duration.ofMinutes(15)));
+    }
+}
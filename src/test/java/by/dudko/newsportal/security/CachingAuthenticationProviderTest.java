@@ -0,0 +1,101 @@
+package by.dudko.newsportal.security;
+
+import by.dudko.newsportal.dto.user.UserDetailsImpl;
+import by.dudko.newsportal.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingAuthenticationProviderTest {
+    private static final long USER_ID = 1L;
+    private static final UserDetailsImpl USER_DETAILS = UserDetailsImpl.of(User.builder()
+            .id(USER_ID)
+            .username("admin")
+            .password("{noop}1111")
+            .role(User.Role.ADMIN)
+            .build());
+
+    @Mock
+    private AuthenticationProvider delegate;
+
+    private AuthenticationCache authenticationCache;
+    private CachingAuthenticationProvider authenticationProvider;
+
+    @BeforeEach
+    void setUp() {
+        authenticationCache = new AuthenticationCache(Duration.ofMinutes(5), 100);
+        authenticationProvider = new CachingAuthenticationProvider(delegate, authenticationCache);
+    }
+
+    @Test
+    void authenticateUsesCachedCredentialsOnRepeatedRequest() {
+        when(delegate.authenticate(any()))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated(USER_DETAILS, null,
+                        USER_DETAILS.getAuthorities()));
+
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "1111"));
+        Authentication result = authenticationProvider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("admin", "1111"));
+
+        assertThat(result.isAuthenticated()).isTrue();
+        assertThat(result.getPrincipal()).isSameAs(USER_DETAILS);
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    @Test
+    void authenticateWithDifferentPasswordIsNotServedFromCache() {
+        when(delegate.authenticate(any()))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated(USER_DETAILS, null,
+                        USER_DETAILS.getAuthorities()))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "1111"));
+
+        assertThrows(BadCredentialsException.class, () -> authenticationProvider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("admin", "2222")));
+    }
+
+    @Test
+    void evictForcesFullAuthentication() {
+        when(delegate.authenticate(any()))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated(USER_DETAILS, null,
+                        USER_DETAILS.getAuthorities()));
+
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "1111"));
+        authenticationCache.evict(USER_ID);
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "1111"));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void credentialsVerifiedWhileUserChangedAreNotCached() {
+        when(delegate.authenticate(any()))
+                .thenAnswer(invocation -> {
+                    authenticationCache.evict(USER_ID); // password change committed during the verification
+                    return UsernamePasswordAuthenticationToken.authenticated(USER_DETAILS, null,
+                            USER_DETAILS.getAuthorities());
+                });
+
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "1111"));
+        authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "1111"));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+}
@@ -0,0 +1,107 @@
+package by.dudko.newsportal.service;
+
+import by.dudko.newsportal.datasource.PrimaryReads;
+import by.dudko.newsportal.dto.comment.CommentReadDto;
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.CommentChangedEvent;
+import by.dudko.newsportal.event.NewsChangedEvent;
+import by.dudko.newsportal.service.impl.CommentPageCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class CommentPageCacheTest {
+    private static final long NEWS_ID = 1L;
+    private static final long OTHER_NEWS_ID = 2L;
+    private static final long USER_ID = 3L;
+    private static final Pageable FIRST_PAGE = Pageable.ofSize(10);
+
+    private final PrimaryReads primaryReads = new PrimaryReads(mock(PlatformTransactionManager.class), false);
+    private final CommentPageCache commentPageCache = new CommentPageCache(primaryReads, true,
+            Duration.ofMinutes(1), 100);
+    private final AtomicInteger loaderCalls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void repeatedPageIsServedFromMemory() {
+        findPage(NEWS_ID, FIRST_PAGE);
+        findPage(NEWS_ID, FIRST_PAGE);
+
+        assertThat(loaderCalls).hasValue(1);
+    }
+
+    @Test
+    void unpagedRequestIsNotCached() {
+        findPage(NEWS_ID, Pageable.unpaged());
+        findPage(NEWS_ID, Pageable.unpaged());
+
+        assertThat(loaderCalls).hasValue(2);
+    }
+
+    @Test
+    void commentChangeEvictsOnlyPagesOfItsNews() {
+        findPage(NEWS_ID, FIRST_PAGE);
+        findPage(NEWS_ID, FIRST_PAGE.next());
+        findPage(OTHER_NEWS_ID, FIRST_PAGE);
+
+        commentPageCache.onCommentChanged(new CommentChangedEvent(1L, NEWS_ID, USER_ID, ChangeType.CREATED));
+        findPage(NEWS_ID, FIRST_PAGE);
+        findPage(NEWS_ID, FIRST_PAGE.next());
+        findPage(OTHER_NEWS_ID, FIRST_PAGE);
+
+        assertThat(loaderCalls).hasValue(5);
+    }
+
+    @Test
+    void pageLoadedWhileChangeCommitsIsEvictedOnCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+        commentPageCache.onCommentChanged(new CommentChangedEvent(1L, NEWS_ID, USER_ID, ChangeType.UPDATED));
+
+        findPage(NEWS_ID, FIRST_PAGE); // another transaction still sees the old comment
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        findPage(NEWS_ID, FIRST_PAGE);
+
+        assertThat(loaderCalls).hasValue(2);
+    }
+
+    @Test
+    void newsDeletionEvictsItsPages() {
+        findPage(NEWS_ID, FIRST_PAGE);
+
+        commentPageCache.onNewsChanged(new NewsChangedEvent(NEWS_ID, USER_ID, ChangeType.DELETED));
+        findPage(NEWS_ID, FIRST_PAGE);
+
+        assertThat(loaderCalls).hasValue(2);
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(status));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private List<CommentReadDto> findPage(long newsId, Pageable pageable) {
+        return commentPageCache.findPage(newsId, pageable, () -> {
+            loaderCalls.incrementAndGet();
+            return List.of(CommentReadDto.builder()
+                    .id(loaderCalls.get())
+                    .build());
+        });
+    }
+}
@@ -1,25 +1,37 @@
 package by.dudko.newsportal.service;
 
+import by.dudko.newsportal.datasource.PrimaryReads;
 import by.dudko.newsportal.dto.PageResponse;
+import by.dudko.newsportal.dto.SliceResponse;
 import by.dudko.newsportal.dto.comment.CommentCreateEditDto;
 import by.dudko.newsportal.dto.comment.CommentReadDto;
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.CommentChangedEvent;
 import by.dudko.newsportal.exception.EntityNotFoundException;
+import by.dudko.newsportal.exception.PreconditionFailedException;
 import by.dudko.newsportal.mapper.CommentMapper;
 import by.dudko.newsportal.model.Comment;
 import by.dudko.newsportal.model.News;
 import by.dudko.newsportal.repository.CommentRepository;
 import by.dudko.newsportal.repository.NewsRepository;
 import by.dudko.newsportal.repository.UserRepository;
+import by.dudko.newsportal.service.impl.CommentPageCache;
 import by.dudko.newsportal.service.impl.CommentServiceImpl;
+import by.dudko.newsportal.service.impl.ListingCountCache;
+import by.dudko.newsportal.service.impl.ListingCountCache.Listing;
+import by.dudko.newsportal.service.impl.OwnerIdCache;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +40,9 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -50,6 +65,18 @@ class CommentServiceTest {
     @Mock
     private CommentMapper commentMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ListingCountCache listingCountCache;
+
+    @Spy
+    private OwnerIdCache ownerIdCache = new OwnerIdCache(Duration.ofMinutes(1), 100);
+
+    @Spy
+    private CommentPageCache commentPageCache = new CommentPageCache(
+            new PrimaryReads(mock(PlatformTransactionManager.class), false), true, Duration.ofMinutes(1), 100);
 
     @InjectMocks
     private CommentServiceImpl commentService;
@@ -63,9 +90,8 @@ class CommentServiceTest {
                 .text("interesting comment")
                 .build();
         Pageable pageable = Pageable.ofSize(20);
-        Page<Comment> page = new PageImpl<>(List.of(comment), pageable, 1);
-        when(commentRepository.findAllByOwnerId(USER_ID, pageable))
-                .thenReturn(page);
+        when(commentRepository.findSliceByOwnerId(USER_ID, pageable))
+                .thenReturn(new SliceImpl<>(List.of(comment), pageable, false));
         when(commentMapper.toReadDto(comment))
                 .thenReturn(commentReadDto);
         PageResponse.Metadata expectedMetadata = PageResponse.Metadata.builder()
@@ -82,7 +108,7 @@ class CommentServiceTest {
         assertThat(response.getMetadata()).isEqualTo(expectedMetadata);
         assertThat(content).hasSize(1);
         assertThat(content.get(0)).isEqualTo(commentReadDto);
-        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper, listingCountCache);
     }
 
     @Test
@@ -103,9 +129,8 @@ class CommentServiceTest {
                 .text("interesting comment")
                 .build();
         Pageable pageable = Pageable.ofSize(20);
-        Page<Comment> page = new PageImpl<>(List.of(comment), pageable, 1);
-        when(commentRepository.findAllByNewsId(NEWS_ID, pageable))
-                .thenReturn(page);
+        when(commentRepository.findSliceByNewsId(NEWS_ID, pageable))
+                .thenReturn(new SliceImpl<>(List.of(comment), pageable, false));
         when(commentMapper.toReadDto(comment))
                 .thenReturn(commentReadDto);
         PageResponse.Metadata expectedMetadata = PageResponse.Metadata.builder()
@@ -122,6 +147,75 @@ class CommentServiceTest {
         assertThat(response.getMetadata()).isEqualTo(expectedMetadata);
         assertThat(content).hasSize(1);
         assertThat(content.get(0)).isEqualTo(commentReadDto);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper, listingCountCache);
+    }
+
+    @Test
+    void findAllByNewsIdServesRepeatedPageFromCache() {
+        when(newsRepository.existsById(NEWS_ID))
+                .thenReturn(true);
+        Comment comment = new Comment();
+        Pageable pageable = Pageable.ofSize(20);
+        when(commentRepository.findSliceByNewsId(NEWS_ID, pageable))
+                .thenReturn(new SliceImpl<>(List.of(comment), pageable, false));
+
+        commentService.findAllByNewsId(NEWS_ID, pageable);
+        commentService.findAllByNewsId(NEWS_ID, pageable);
+
+        verify(commentRepository).findSliceByNewsId(NEWS_ID, pageable);
+        verifyNoMoreInteractions(commentRepository);
+    }
+
+    @Test
+    void findAllByNewsIdWithFullPage() {
+        when(newsRepository.existsById(NEWS_ID))
+                .thenReturn(true);
+        Comment comment = new Comment();
+        Pageable pageable = Pageable.ofSize(1);
+        when(commentRepository.findSliceByNewsId(NEWS_ID, pageable))
+                .thenReturn(new SliceImpl<>(List.of(comment), pageable, true));
+        when(listingCountCache.count(eq(Listing.NEWS_COMMENTS), eq(NEWS_ID), any()))
+                .thenReturn(7L);
+
+        PageResponse<CommentReadDto> response = commentService.findAllByNewsId(NEWS_ID, pageable);
+
+        assertThat(response.getMetadata().getTotalElements()).isEqualTo(7);
+        assertThat(response.getMetadata().getTotalPages()).isEqualTo(7);
+    }
+
+    @Test
+    void findSliceByNewsId() {
+        when(newsRepository.existsById(NEWS_ID))
+                .thenReturn(true);
+        Comment comment = new Comment();
+        CommentReadDto commentReadDto = CommentReadDto.builder()
+                .text("interesting comment")
+                .build();
+        Pageable pageable = Pageable.ofSize(20);
+        when(commentRepository.findSliceByNewsId(NEWS_ID, pageable))
+                .thenReturn(new SliceImpl<>(List.of(comment), pageable, false));
+        when(commentMapper.toReadDto(comment))
+                .thenReturn(commentReadDto);
+        SliceResponse.Metadata expectedMetadata = SliceResponse.Metadata.builder()
+                .page(0)
+                .size(20)
+                .numberOfElements(1)
+                .hasNext(false)
+                .build();
+
+        SliceResponse<CommentReadDto> response = commentService.findSliceByNewsId(NEWS_ID, pageable);
+
+        assertThat(response.getMetadata()).isEqualTo(expectedMetadata);
+        assertThat(response.getContent()).containsExactly(commentReadDto);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper);
+    }
+
+    @Test
+    void findSliceByNewsIdWithNonExistentNewsId() {
+        when(newsRepository.existsById(NEWS_ID))
+                .thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> commentService.findSliceByNewsId(NEWS_ID, Pageable.unpaged()));
         verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper);
     }
 
@@ -137,7 +231,7 @@ class CommentServiceTest {
     @Test
     void findById() {
         Comment comment = new Comment();
-        when(commentRepository.findById(COMMENT_ID)).thenReturn(Optional.of(comment));
+        when(commentRepository.findVisibleById(COMMENT_ID)).thenReturn(Optional.of(comment));
         when(commentMapper.toReadDto(comment)).thenReturn(CommentReadDto.builder()
                 .id(COMMENT_ID)
                 .build());
@@ -150,7 +244,7 @@ class CommentServiceTest {
 
     @Test
     void findByIdWithNonExistentCommentId() {
-        when(commentRepository.findById(COMMENT_ID))
+        when(commentRepository.findVisibleById(COMMENT_ID))
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> commentService.findById(COMMENT_ID));
@@ -159,19 +253,27 @@ class CommentServiceTest {
 
     @Test
     void isCommentOwnerShouldReturnTrue() {
-        Comment comment = Comment.builder()
-                .ownerId(USER_ID)
-                .build();
-        when(commentRepository.findById(COMMENT_ID))
-                .thenReturn(Optional.of(comment));
+        when(commentRepository.findOwnerIdById(COMMENT_ID))
+                .thenReturn(Optional.of(USER_ID));
 
         assertTrue(commentService.isCommentOwner(USER_ID, COMMENT_ID));
         verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper);
     }
 
+    @Test
+    void repeatedIsCommentOwnerIsServedFromMemory() {
+        when(commentRepository.findOwnerIdById(COMMENT_ID))
+                .thenReturn(Optional.of(USER_ID));
+
+        assertTrue(commentService.isCommentOwner(USER_ID, COMMENT_ID));
+        assertTrue(commentService.isCommentOwner(USER_ID, COMMENT_ID));
+        verify(commentRepository).findOwnerIdById(COMMENT_ID);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper);
+    }
+
     @Test
     void isCommentOwnerWithNonExistentCommentId() {
-        when(commentRepository.findById(COMMENT_ID))
+        when(commentRepository.findOwnerIdById(COMMENT_ID))
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> commentService.isCommentOwner(USER_ID, COMMENT_ID));
@@ -181,11 +283,8 @@ class CommentServiceTest {
     @Test
     void isCommentOwnerShouldReturnFalse() {
         long notTheCommentOwnerId = 500;
-        Comment comment = Comment.builder()
-                .ownerId(notTheCommentOwnerId)
-                .build();
-        when(commentRepository.findById(COMMENT_ID))
-                .thenReturn(Optional.of(comment));
+        when(commentRepository.findOwnerIdById(COMMENT_ID))
+                .thenReturn(Optional.of(notTheCommentOwnerId));
 
         assertFalse(commentService.isCommentOwner(USER_ID, COMMENT_ID));
         verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper);
@@ -197,7 +296,10 @@ class CommentServiceTest {
         when(newsRepository.findById(NEWS_ID))
                 .thenReturn(Optional.of(news));
         CommentCreateEditDto newComment = CommentCreateEditDto.of("");
-        Comment comment = new Comment();
+        Comment comment = Comment.builder()
+                .id(COMMENT_ID)
+                .ownerId(USER_ID)
+                .build();
         when(commentMapper.toComment(newComment))
                 .thenReturn(comment);
         when(commentRepository.saveAndFlush(comment))
@@ -212,7 +314,9 @@ class CommentServiceTest {
         CommentReadDto result = commentService.saveByNewsId(NEWS_ID, newComment);
 
         assertThat(result).isEqualTo(savedComment);
-        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper);
+        verify(newsRepository).addToCommentCount(NEWS_ID, 1);
+        verify(eventPublisher).publishEvent(new CommentChangedEvent(COMMENT_ID, NEWS_ID, USER_ID, ChangeType.CREATED));
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper, eventPublisher);
     }
 
     @Test
@@ -228,27 +332,78 @@ class CommentServiceTest {
     @Test
     void updateById() {
         CommentCreateEditDto newCommentInfo = CommentCreateEditDto.of("");
-        Comment comment = new Comment();
+        Comment comment = Comment.builder()
+                .id(COMMENT_ID)
+                .ownerId(USER_ID)
+                .news(News.builder().id(NEWS_ID).build())
+                .build();
         CommentReadDto updatedComment = CommentReadDto.builder()
                 .text("Some text")
                 .build();
-        when(commentRepository.findById(COMMENT_ID))
+        when(commentRepository.findVisibleById(COMMENT_ID))
                 .thenReturn(Optional.of(comment));
         when(commentMapper.toComment(newCommentInfo, comment))
                 .thenReturn(comment);
+        when(commentRepository.saveAndFlush(comment))
+                .thenReturn(comment);
         when(commentMapper.toReadDto(comment))
                 .thenReturn(updatedComment);
 
         CommentReadDto result = commentService.updateById(COMMENT_ID, newCommentInfo);
 
         assertThat(result).isEqualTo(updatedComment);
-        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper);
+        verify(eventPublisher).publishEvent(new CommentChangedEvent(COMMENT_ID, NEWS_ID, USER_ID, ChangeType.UPDATED));
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper, eventPublisher);
+    }
+
+    @Test
+    void updateByIdWithMatchingVersion() {
+        CommentCreateEditDto newCommentInfo = CommentCreateEditDto.of("");
+        Comment comment = Comment.builder()
+                .id(COMMENT_ID)
+                .ownerId(USER_ID)
+                .news(News.builder().id(NEWS_ID).build())
+                .build();
+        comment.setVersion(3L);
+        CommentReadDto updatedComment = CommentReadDto.builder()
+                .text("Some text")
+                .build();
+        when(commentRepository.findVisibleById(COMMENT_ID))
+                .thenReturn(Optional.of(comment));
+        when(commentMapper.toComment(newCommentInfo, comment))
+                .thenReturn(comment);
+        when(commentRepository.saveAndFlush(comment))
+                .thenReturn(comment);
+        when(commentMapper.toReadDto(comment))
+                .thenReturn(updatedComment);
+
+        CommentReadDto result = commentService.updateById(COMMENT_ID, newCommentInfo, 3L);
+
+        assertThat(result).isEqualTo(updatedComment);
+        verify(eventPublisher).publishEvent(new CommentChangedEvent(COMMENT_ID, NEWS_ID, USER_ID, ChangeType.UPDATED));
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper, eventPublisher);
+    }
+
+    @Test
+    void updateByIdWithStaleVersion() {
+        CommentCreateEditDto newCommentInfo = CommentCreateEditDto.of("");
+        Comment comment = Comment.builder()
+                .id(COMMENT_ID)
+                .ownerId(USER_ID)
+                .build();
+        comment.setVersion(3L);
+        when(commentRepository.findVisibleById(COMMENT_ID))
+                .thenReturn(Optional.of(comment));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> commentService.updateById(COMMENT_ID, newCommentInfo, 2L));
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper, eventPublisher);
     }
 
     @Test
     void updateByIdWithNonExistentCommentId() {
         CommentCreateEditDto newCommentInfo = CommentCreateEditDto.of("new text");
-        when(commentRepository.findById(COMMENT_ID))
+        when(commentRepository.findVisibleById(COMMENT_ID))
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> commentService.findById(COMMENT_ID));
@@ -257,19 +412,25 @@ class CommentServiceTest {
 
     @Test
     void deleteById() {
-        Comment comment = new Comment();
-        when(commentRepository.findById(COMMENT_ID))
+        Comment comment = Comment.builder()
+                .id(COMMENT_ID)
+                .ownerId(USER_ID)
+                .news(News.builder().id(NEWS_ID).build())
+                .build();
+        when(commentRepository.findVisibleById(COMMENT_ID))
                 .thenReturn(Optional.of(comment));
 
         assertDoesNotThrow(() -> commentService.deleteById(COMMENT_ID));
         verify(commentRepository).delete(comment);
         verify(commentRepository).flush();
-        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper);
+        verify(newsRepository).addToCommentCount(NEWS_ID, -1);
+        verify(eventPublisher).publishEvent(new CommentChangedEvent(COMMENT_ID, NEWS_ID, USER_ID, ChangeType.DELETED));
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper, eventPublisher);
     }
 
     @Test
     void deleteByIdWithNonExistentCommentId() {
-        when(commentRepository.findById(COMMENT_ID))
+        when(commentRepository.findVisibleById(COMMENT_ID))
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> commentService.deleteById(COMMENT_ID));
@@ -0,0 +1,135 @@
+package by.dudko.newsportal.service;
+
+import by.dudko.newsportal.datasource.PrimaryReads;
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.CommentChangedEvent;
+import by.dudko.newsportal.event.NewsChangedEvent;
+import by.dudko.newsportal.service.impl.ListingCountCache;
+import by.dudko.newsportal.service.impl.ListingCountCache.Listing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ListingCountCacheTest {
+    private static final long NEWS_ID = 1L;
+    private static final long USER_ID = 2L;
+
+    private final PrimaryReads primaryReads = new PrimaryReads(mock(PlatformTransactionManager.class), false);
+    private final ListingCountCache listingCountCache = new ListingCountCache(primaryReads, true,
+            Duration.ofMinutes(1), 100);
+    private final AtomicInteger counterCalls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void repeatedCountIsServedFromMemory() {
+        assertThat(countNewsComments(10)).isEqualTo(10);
+        assertThat(countNewsComments(10)).isEqualTo(10);
+        assertThat(counterCalls).hasValue(1);
+    }
+
+    @Test
+    void committedCommentCreationIncrementsCounts() {
+        countNewsComments(10);
+        listingCountCache.count(Listing.USER_COMMENTS, USER_ID, () -> 3);
+        TransactionSynchronizationManager.initSynchronization();
+
+        listingCountCache.onCommentChanged(new CommentChangedEvent(1L, NEWS_ID, USER_ID, ChangeType.CREATED));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(countNewsComments(10)).isEqualTo(11);
+        assertThat(listingCountCache.count(Listing.USER_COMMENTS, USER_ID, () -> 3)).isEqualTo(4);
+        assertThat(counterCalls).hasValue(1);
+    }
+
+    @Test
+    void rolledBackCommentDeletionLeavesCount() {
+        countNewsComments(10);
+        TransactionSynchronizationManager.initSynchronization();
+
+        listingCountCache.onCommentChanged(new CommentChangedEvent(1L, NEWS_ID, USER_ID, ChangeType.DELETED));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(countNewsComments(10)).isEqualTo(10);
+        assertThat(counterCalls).hasValue(1);
+    }
+
+    @Test
+    void countTakenWhileChangeCommitsIsNotCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        listingCountCache.onCommentChanged(new CommentChangedEvent(1L, NEWS_ID, USER_ID, ChangeType.CREATED));
+
+        countNewsComments(11);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(countNewsComments(11)).isEqualTo(11);
+        assertThat(counterCalls).hasValue(2);
+    }
+
+    @Test
+    void newsDeletionEvictsItsComments() {
+        countNewsComments(10);
+
+        listingCountCache.onNewsChanged(new NewsChangedEvent(NEWS_ID, USER_ID, ChangeType.DELETED));
+
+        countNewsComments(10);
+        assertThat(counterCalls).hasValue(2);
+    }
+
+    @Test
+    void newsDeletionEvictsCommentCountsOfUsers() {
+        listingCountCache.count(Listing.USER_COMMENTS, 3L, () -> 3);
+
+        listingCountCache.onNewsChanged(new NewsChangedEvent(NEWS_ID, USER_ID, ChangeType.DELETED));
+
+        assertThat(listingCountCache.count(Listing.USER_COMMENTS, 3L, () -> 2)).isEqualTo(2);
+    }
+
+    @Test
+    void evictAllDropsEveryCountOfListing() {
+        countNewsComments(10);
+        listingCountCache.count(Listing.NEWS_COMMENTS, 2L, () -> 5);
+
+        listingCountCache.evictAll(Listing.NEWS_COMMENTS);
+
+        assertThat(listingCountCache.count(Listing.NEWS_COMMENTS, 2L, () -> 6)).isEqualTo(6);
+    }
+
+    @Test
+    void disabledCacheAlwaysCounts() {
+        ListingCountCache disabledCache = new ListingCountCache(primaryReads, false, Duration.ofMinutes(1), 100);
+        LongSupplier counter = () -> counterCalls.incrementAndGet();
+
+        disabledCache.count(Listing.USER_NEWS, USER_ID, counter);
+        disabledCache.count(Listing.USER_NEWS, USER_ID, counter);
+
+        assertThat(counterCalls).hasValue(2);
+    }
+
+    private long countNewsComments(long count) {
+        return listingCountCache.count(Listing.NEWS_COMMENTS, NEWS_ID, () -> {
+            counterCalls.incrementAndGet();
+            return count;
+        });
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(status));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
@@ -0,0 +1,118 @@
+package by.dudko.newsportal.service;
+
+import by.dudko.newsportal.dto.news.NewsCreateEditDto;
+import by.dudko.newsportal.dto.news.NewsImportResult;
+import by.dudko.newsportal.dto.news.NewsImportResult.Item;
+import by.dudko.newsportal.dto.news.NewsImportResult.Status;
+import by.dudko.newsportal.mapper.NewsMapper;
+import by.dudko.newsportal.model.News;
+import by.dudko.newsportal.repository.NewsRepository;
+import by.dudko.newsportal.service.impl.NewsImportServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NewsImportServiceTest {
+    private static final long USER_ID = 1L;
+    private static final String ITEMS = """
+            {"title": "title1", "text": "text1"}
+            {"title": "title2", "text": "text2"}
+            {"title": "title3", "text": "text3"}
+            """;
+
+    @Mock
+    private NewsRepository newsRepository;
+
+    @Mock
+    private NewsMapper newsMapper;
+
+    @Mock
+    private Validator validator;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private NewsImportServiceImpl newsImportService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(newsImportService, "chunkSize", 3);
+    }
+
+    @Test
+    void importAllSavesChunkAtOnce() {
+        when(newsMapper.toNews(any(NewsCreateEditDto.class)))
+                .thenReturn(new News());
+        doReturn(List.of(savedNews(1L), savedNews(2L), savedNews(3L)))
+                .when(newsRepository).saveAll(anyList());
+
+        NewsImportResult result = newsImportService.importAll(inputOf(ITEMS));
+
+        assertThat(result.getCreated()).isEqualTo(3);
+        assertThat(result.getItems()).extracting(Item::getId).containsExactly(1L, 2L, 3L);
+        verify(newsRepository).saveAll(anyList());
+    }
+
+    @Test
+    void importAllRetriesFailedChunkItemByItem() {
+        when(newsMapper.toNews(any(NewsCreateEditDto.class)))
+                .thenReturn(new News());
+        doThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"))
+                .doReturn(List.of(savedNews(1L)))
+                .doThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"))
+                .doReturn(List.of(savedNews(3L)))
+                .when(newsRepository).saveAll(anyList());
+
+        NewsImportResult result = newsImportService.importAll(inputOf(ITEMS));
+
+        assertThat(result.getItems()).extracting(Item::getStatus)
+                .containsExactly(Status.CREATED, Status.REJECTED, Status.CREATED);
+        assertThat(result.getItems()).extracting(Item::getId).containsExactly(1L, null, 3L);
+        assertThat(result.getItems().get(1).getErrors()).containsExactly("Item conflicts with existing data");
+        verify(newsRepository, times(4)).saveAll(anyList());
+    }
+
+    private static News savedNews(long id) {
+        return News.builder()
+                .id(id)
+                .ownerId(USER_ID)
+                .build();
+    }
+
+    private static ByteArrayInputStream inputOf(String items) {
+        return new ByteArrayInputStream(items.getBytes(StandardCharsets.UTF_8));
+    }
+}
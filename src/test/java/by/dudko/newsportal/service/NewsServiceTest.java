@@ -1,27 +1,51 @@
 package by.dudko.newsportal.service;
 
+import by.dudko.newsportal.datasource.PrimaryReads;
+import by.dudko.newsportal.dto.CursorPageResponse;
 import by.dudko.newsportal.dto.PageResponse;
+import by.dudko.newsportal.dto.SliceResponse;
 import by.dudko.newsportal.dto.comment.CommentReadDto;
 import by.dudko.newsportal.dto.news.NewsCreateEditDto;
+import by.dudko.newsportal.dto.news.NewsCursor;
 import by.dudko.newsportal.dto.news.NewsFilter;
 import by.dudko.newsportal.dto.news.NewsReadDto;
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.NewsChangedEvent;
 import by.dudko.newsportal.exception.EntityNotFoundException;
+import by.dudko.newsportal.exception.PreconditionFailedException;
+import by.dudko.newsportal.mapper.CommentMapper;
 import by.dudko.newsportal.mapper.NewsMapper;
 import by.dudko.newsportal.model.News;
+import by.dudko.newsportal.repository.CommentRepository;
 import by.dudko.newsportal.repository.NewsRepository;
 import by.dudko.newsportal.repository.UserRepository;
+import by.dudko.newsportal.repository.projection.CommentView;
+import by.dudko.newsportal.repository.projection.NewsView;
+import by.dudko.newsportal.service.impl.CommentPageCache;
+import by.dudko.newsportal.service.impl.ListingCountCache;
+import by.dudko.newsportal.service.impl.ListingCountCache.Listing;
+import by.dudko.newsportal.service.impl.OwnerIdCache;
 import by.dudko.newsportal.service.impl.NewsServiceImpl;
+import by.dudko.newsportal.service.impl.ParallelNewsReader;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,7 +53,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -45,11 +74,33 @@ class NewsServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private CommentService commentService;
+    private CommentRepository commentRepository;
 
     @Mock
     private NewsMapper newsMapper;
 
+    @Mock
+    private CommentMapper commentMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ParallelNewsReader parallelNewsReader;
+
+    @Mock
+    private ListingCountCache listingCountCache;
+
+    @Spy
+    private OwnerIdCache ownerIdCache = new OwnerIdCache(Duration.ofMinutes(1), 100);
+
+    @Spy
+    private CommentPageCache commentPageCache = new CommentPageCache(
+            new PrimaryReads(mock(PlatformTransactionManager.class), false), true, Duration.ofMinutes(1), 100);
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private NewsServiceImpl newsService;
 
@@ -82,7 +133,57 @@ class NewsServiceTest {
         assertThat(response.getMetadata()).isEqualTo(expectedMetadata);
         assertThat(content).hasSize(1);
         assertThat(content.get(0)).isEqualTo(newsReadDto);
-        verifyNoMoreInteractions(commentService, newsRepository, userRepository, newsMapper);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
+    }
+
+    @Test
+    void findAllByFilterWithFullTextQuery() {
+        News news = new News();
+        NewsReadDto newsReadDto = NewsReadDto.builder()
+                .title("test title")
+                .build();
+        NewsFilter newsFilter = NewsFilter.builder()
+                .q("test")
+                .title("Title")
+                .build();
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("title"));
+        Pageable rankedPageable = PageRequest.of(0, 20);
+        when(newsRepository.search("test", "%title%", "%", rankedPageable))
+                .thenReturn(new PageImpl<>(List.of(news), rankedPageable, 1));
+        when(newsMapper.toReadDto(news))
+                .thenReturn(newsReadDto);
+
+        PageResponse<NewsReadDto> response = newsService.findAllByFilter(newsFilter, pageable);
+
+        assertThat(response.getContent()).containsExactly(newsReadDto);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
+    }
+
+    @Test
+    void findAllByFilterWithCursor() {
+        News first = News.builder()
+                .id(2L)
+                .build();
+        first.setCreationDate(Instant.parse("2023-01-02T00:00:00Z"));
+        News second = News.builder()
+                .id(1L)
+                .build();
+        second.setCreationDate(Instant.parse("2023-01-01T00:00:00Z"));
+        NewsReadDto firstReadDto = NewsReadDto.builder()
+                .id(2L)
+                .build();
+        NewsFilter newsFilter = NewsFilter.builder().build();
+        when(newsRepository.findAllLimited(newsFilter.toSpecification(), NewsCursor.ORDER, 2))
+                .thenReturn(List.of(first, second));
+        when(newsMapper.toReadDto(first))
+                .thenReturn(firstReadDto);
+
+        CursorPageResponse<NewsReadDto> response = newsService.findAllByFilter(newsFilter, null, 1);
+
+        assertThat(response.getContent()).containsExactly(firstReadDto);
+        assertThat(response.getMetadata().isHasNext()).isTrue();
+        assertThat(NewsCursor.valueOf(response.getMetadata().getNext())).isEqualTo(NewsCursor.of(first));
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
     }
 
     @Test
@@ -95,9 +196,8 @@ class NewsServiceTest {
                 .text("test text")
                 .build();
         Pageable pageable = Pageable.ofSize(20);
-        Page<News> page = new PageImpl<>(List.of(news), pageable, 1);
-        when(newsRepository.findAllByOwnerId(USER_ID, pageable))
-                .thenReturn(page);
+        when(newsRepository.findSliceByOwnerId(USER_ID, pageable))
+                .thenReturn(new SliceImpl<>(List.of(news), pageable, false));
         when(newsMapper.toReadDto(news))
                 .thenReturn(newsReadDto);
         PageResponse.Metadata expectedMetadata = PageResponse.Metadata.builder()
@@ -114,7 +214,100 @@ class NewsServiceTest {
         assertThat(response.getMetadata()).isEqualTo(expectedMetadata);
         assertThat(content).hasSize(1);
         assertThat(content.get(0)).isEqualTo(newsReadDto);
-        verifyNoMoreInteractions(commentService, newsRepository, userRepository, newsMapper);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper,
+                listingCountCache);
+    }
+
+    @Test
+    void findAllByUserIdWithFullPage() {
+        when(userRepository.existsById(USER_ID))
+                .thenReturn(true);
+        Pageable pageable = Pageable.ofSize(1);
+        when(newsRepository.findSliceByOwnerId(USER_ID, pageable))
+                .thenReturn(new SliceImpl<>(List.of(new News()), pageable, true));
+        when(listingCountCache.count(eq(Listing.USER_NEWS), eq(USER_ID), any()))
+                .thenReturn(10L);
+
+        PageResponse<NewsReadDto> response = newsService.findAllByUserId(USER_ID, pageable);
+
+        assertThat(response.getMetadata().getTotalElements()).isEqualTo(10);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper);
+    }
+
+    @Test
+    void findSliceByUserId() {
+        when(userRepository.existsById(USER_ID))
+                .thenReturn(true);
+        News news = new News();
+        NewsReadDto newsReadDto = NewsReadDto.builder()
+                .title("test title")
+                .build();
+        Pageable pageable = Pageable.ofSize(1);
+        when(newsRepository.findSliceByOwnerId(USER_ID, pageable))
+                .thenReturn(new SliceImpl<>(List.of(news), pageable, true));
+        when(newsMapper.toReadDto(news))
+                .thenReturn(newsReadDto);
+        SliceResponse.Metadata expectedMetadata = SliceResponse.Metadata.builder()
+                .page(0)
+                .size(1)
+                .numberOfElements(1)
+                .hasNext(true)
+                .build();
+
+        SliceResponse<NewsReadDto> response = newsService.findSliceByUserId(USER_ID, pageable);
+
+        assertThat(response.getMetadata()).isEqualTo(expectedMetadata);
+        assertThat(response.getContent()).containsExactly(newsReadDto);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
+    }
+
+    @Test
+    void findAllByFilterWithEstimatedTotal() {
+        News news = new News();
+        NewsReadDto newsReadDto = NewsReadDto.builder()
+                .title("test title")
+                .build();
+        Pageable pageable = Pageable.ofSize(1);
+        when(newsRepository.findSlice(null, pageable))
+                .thenReturn(new SliceImpl<>(List.of(news), pageable, true));
+        when(newsRepository.estimateCount())
+                .thenReturn(40L);
+        when(newsRepository.countDeleted())
+                .thenReturn(5L); // tombstones are not listed
+        when(newsMapper.toReadDto(news))
+                .thenReturn(newsReadDto);
+        PageResponse.Metadata expectedMetadata = PageResponse.Metadata.builder()
+                .page(0)
+                .size(1)
+                .numberOfElements(1)
+                .totalElements(35)
+                .totalPages(35)
+                .estimated(true)
+                .build();
+
+        PageResponse<NewsReadDto> response = newsService.findAllByFilterWithEstimatedTotal(
+                NewsFilter.builder().build(), pageable);
+
+        assertThat(response.getMetadata()).isEqualTo(expectedMetadata);
+        assertThat(response.getContent()).containsExactly(newsReadDto);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
+    }
+
+    @Test
+    void findAllByFilterWithEstimatedTotalBeforeFirstAnalyze() {
+        Pageable pageable = Pageable.ofSize(1);
+        when(newsRepository.findSlice(null, pageable))
+                .thenReturn(new SliceImpl<>(List.of(new News()), pageable, true));
+        when(newsRepository.estimateCount())
+                .thenReturn(-1L);
+        when(newsRepository.count())
+                .thenReturn(20L);
+
+        PageResponse<NewsReadDto> response = newsService.findAllByFilterWithEstimatedTotal(
+                NewsFilter.builder().build(), pageable);
+
+        assertThat(response.getMetadata().getTotalElements()).isEqualTo(20);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, commentMapper);
     }
 
     @Test
@@ -123,81 +316,133 @@ class NewsServiceTest {
                 .thenReturn(false);
 
         assertThrows(EntityNotFoundException.class, () -> newsService.findAllByUserId(USER_ID, Pageable.unpaged()));
-        verifyNoMoreInteractions(commentService, newsRepository, userRepository, newsMapper);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
     }
 
     @Test
     void findByIdWithComments() {
-        News news = new News();
-        when(newsRepository.findById(NEWS_ID))
-                .thenReturn(Optional.of(news));
+        NewsView newsView = newsView(2);
+        when(newsRepository.findViewById(NEWS_ID))
+                .thenReturn(Optional.of(newsView));
         NewsReadDto newsReadDto = NewsReadDto.builder()
                 .id(NEWS_ID)
                 .title("Greetings")
                 .text("Hello")
                 .build();
-        when(newsMapper.toReadDto(news))
+        when(newsMapper.toReadDto(newsView))
                 .thenReturn(newsReadDto);
         Pageable pageable = Pageable.ofSize(20);
-        Page<CommentReadDto> commentPage = Page.empty(pageable);
-        when(commentService.findAllByNewsId(NEWS_ID, pageable))
-                .thenReturn(PageResponse.of(commentPage));
+        CommentView commentView = mock(CommentView.class);
+        when(commentRepository.findAllViewsByNewsId(NEWS_ID, pageable))
+                .thenReturn(List.of(commentView, commentView));
+        CommentReadDto commentReadDto = CommentReadDto.builder()
+                .id(1L)
+                .text("Nice")
+                .ownerId(USER_ID)
+                .build();
+        when(commentMapper.toReadDto(commentView))
+                .thenReturn(commentReadDto);
 
         NewsReadDto searchResult = newsService.findByIdWithComments(NEWS_ID, pageable);
 
         assertThat(searchResult).isEqualTo(newsReadDto);
-        verifyNoMoreInteractions(commentService, newsRepository, userRepository, newsMapper);
+        assertThat(searchResult.getComments().getContent()).containsExactly(commentReadDto, commentReadDto);
+        assertThat(searchResult.getComments().getMetadata().getTotalElements()).isEqualTo(2);
+        verify(transactionManager).commit(any()); // both queries read the same snapshot
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
+    }
+
+    @Test
+    void findByIdWithCommentsInParallelMode() {
+        Pageable pageable = Pageable.ofSize(20);
+        NewsReadDto newsReadDto = NewsReadDto.builder()
+                .id(NEWS_ID)
+                .build();
+        when(parallelNewsReader.isEnabled())
+                .thenReturn(true);
+        when(parallelNewsReader.findByIdWithComments(NEWS_ID, pageable))
+                .thenReturn(newsReadDto);
+
+        assertThat(newsService.findByIdWithComments(NEWS_ID, pageable)).isSameAs(newsReadDto);
+        verifyNoInteractions(transactionManager); // the parallel reads open their own transactions
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
+    }
+
+    @Test
+    void findByIdWithCommentsWithoutComments() {
+        NewsView newsView = newsView(0);
+        when(newsRepository.findViewById(NEWS_ID))
+                .thenReturn(Optional.of(newsView));
+        NewsReadDto newsReadDto = NewsReadDto.builder()
+                .id(NEWS_ID)
+                .build();
+        when(newsMapper.toReadDto(newsView))
+                .thenReturn(newsReadDto);
+
+        NewsReadDto searchResult = newsService.findByIdWithComments(NEWS_ID, Pageable.ofSize(20));
+
+        assertThat(searchResult.getComments().getContent()).isEmpty();
+        assertThat(searchResult.getComments().getMetadata().getTotalElements()).isZero();
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
     }
 
     @Test
     void findByIdWithCommentsWithNonExistentNewsId() {
-        when(newsRepository.findById(NEWS_ID))
+        when(newsRepository.findViewById(NEWS_ID))
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> newsService.findByIdWithComments(NEWS_ID, Pageable.unpaged()));
-        verify(newsRepository).findById(NEWS_ID);
-        verifyNoMoreInteractions(commentService, newsRepository, userRepository, newsMapper);
+        verify(newsRepository).findViewById(NEWS_ID);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
     }
 
     @Test
     void isNewsOwnerShouldReturnTrue() {
-        News news = News.builder()
-                .ownerId(NEWS_ID)
-                .build();
-        when(newsRepository.findById(NEWS_ID))
-                .thenReturn(Optional.of(news));
+        when(newsRepository.findOwnerIdById(NEWS_ID))
+                .thenReturn(Optional.of(USER_ID));
 
         assertTrue(newsService.isNewsOwner(USER_ID, NEWS_ID));
-        verifyNoMoreInteractions(commentService, newsRepository, userRepository, newsMapper);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
+    }
+
+    @Test
+    void repeatedIsNewsOwnerIsServedFromMemory() {
+        when(newsRepository.findOwnerIdById(NEWS_ID))
+                .thenReturn(Optional.of(USER_ID));
+
+        assertTrue(newsService.isNewsOwner(USER_ID, NEWS_ID));
+        assertTrue(newsService.isNewsOwner(USER_ID, NEWS_ID));
+        verify(newsRepository).findOwnerIdById(NEWS_ID);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
     }
 
     @Test
     void isNewsOwnerWithNonExistentNewsId() {
-        when(newsRepository.findById(NEWS_ID))
+        when(newsRepository.findOwnerIdById(NEWS_ID))
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> newsService.isNewsOwner(USER_ID, NEWS_ID));
-        verifyNoMoreInteractions(commentService, newsRepository, userRepository, newsMapper);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
     }
 
     @Test
     void isNewsOwnerShouldReturnFalse() {
         long notTheNewsOwnerId = 500;
-        News news = News.builder()
-                .ownerId(notTheNewsOwnerId)
-                .build();
-        when(newsRepository.findById(NEWS_ID))
-                .thenReturn(Optional.of(news));
+        when(newsRepository.findOwnerIdById(NEWS_ID))
+                .thenReturn(Optional.of(notTheNewsOwnerId));
 
         assertFalse(newsService.isNewsOwner(USER_ID, NEWS_ID));
-        verifyNoMoreInteractions(commentService, newsRepository, userRepository, newsMapper);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
     }
 
     @Test
     void save() {
         NewsCreateEditDto newNews = NewsCreateEditDto.builder()
                 .build();
-        News news = new News();
+        News news = News.builder()
+                .id(NEWS_ID)
+                .ownerId(USER_ID)
+                .build();
         when(newsMapper.toNews(newNews))
                 .thenReturn(news);
         NewsReadDto savedNews = NewsReadDto.builder()
@@ -211,7 +456,9 @@ class NewsServiceTest {
         NewsReadDto result = newsService.save(newNews);
 
         assertThat(result.getId()).isEqualTo(NEWS_ID);
-        verifyNoMoreInteractions(commentService, newsRepository, userRepository, newsMapper);
+        verify(eventPublisher).publishEvent(new NewsChangedEvent(NEWS_ID, USER_ID, ChangeType.CREATED));
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper,
+                eventPublisher);
     }
 
     @Test
@@ -222,7 +469,10 @@ class NewsServiceTest {
     @Test
     void updateById() {
         NewsCreateEditDto newNewsInfo = NewsCreateEditDto.builder().build();
-        News news = new News();
+        News news = News.builder()
+                .id(NEWS_ID)
+                .ownerId(USER_ID)
+                .build();
         NewsReadDto updatedNews = NewsReadDto.builder()
                 .id(4L)
                 .build();
@@ -230,13 +480,33 @@ class NewsServiceTest {
                 .thenReturn(Optional.of(news));
         when(newsMapper.toNews(newNewsInfo, news))
                 .thenReturn(news);
+        when(newsRepository.saveAndFlush(news))
+                .thenReturn(news);
         when(newsMapper.toReadDto(news))
                 .thenReturn(updatedNews);
 
         NewsReadDto result = newsService.updateById(NEWS_ID, newNewsInfo);
 
         assertThat(result).isEqualTo(updatedNews);
-        verifyNoMoreInteractions(commentService, newsRepository, userRepository, newsMapper);
+        verify(eventPublisher).publishEvent(new NewsChangedEvent(NEWS_ID, USER_ID, ChangeType.UPDATED));
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper,
+                eventPublisher);
+    }
+
+    @Test
+    void updateByIdWithStaleVersion() {
+        NewsCreateEditDto newNewsInfo = NewsCreateEditDto.builder().build();
+        News news = News.builder()
+                .id(NEWS_ID)
+                .ownerId(USER_ID)
+                .build();
+        news.setVersion(2L);
+        when(newsRepository.findById(NEWS_ID))
+                .thenReturn(Optional.of(news));
+
+        assertThrows(PreconditionFailedException.class, () -> newsService.updateById(NEWS_ID, newNewsInfo, 1L));
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper,
+                eventPublisher);
     }
 
     @Test
@@ -246,19 +516,24 @@ class NewsServiceTest {
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> newsService.updateById(NEWS_ID, newNewsInfo));
-        verifyNoMoreInteractions(commentService, newsRepository, userRepository, newsMapper);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
     }
 
     @Test
     void deleteById() {
-        News news = new News();
+        News news = News.builder()
+                .id(NEWS_ID)
+                .ownerId(USER_ID)
+                .build();
         when(newsRepository.findById(NEWS_ID))
                 .thenReturn(Optional.of(news));
 
         Assertions.assertDoesNotThrow(() -> newsService.deleteById(NEWS_ID));
         verify(newsRepository).delete(news);
         verify(newsRepository).flush();
-        verifyNoMoreInteractions(commentService, newsRepository, userRepository, newsMapper);
+        verify(eventPublisher).publishEvent(new NewsChangedEvent(NEWS_ID, USER_ID, ChangeType.DELETED));
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper,
+                eventPublisher);
     }
 
     @Test
@@ -267,6 +542,13 @@ class NewsServiceTest {
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> newsService.deleteById(NEWS_ID));
-        verifyNoMoreInteractions(commentService, newsRepository, userRepository, newsMapper);
+        verifyNoMoreInteractions(commentRepository, newsRepository, userRepository, newsMapper, commentMapper);
+    }
+
+    private static NewsView newsView(long commentCount) {
+        NewsView newsView = mock(NewsView.class);
+        lenient().when(newsView.getId()).thenReturn(NEWS_ID);
+        when(newsView.getCommentCount()).thenReturn(commentCount);
+        return newsView;
     }
 }
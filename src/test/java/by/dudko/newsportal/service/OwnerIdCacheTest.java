@@ -0,0 +1,91 @@
+package by.dudko.newsportal.service;
+
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.NewsChangedEvent;
+import by.dudko.newsportal.event.UserDeletedEvent;
+import by.dudko.newsportal.model.News;
+import by.dudko.newsportal.service.impl.OwnerIdCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OwnerIdCacheTest {
+    private static final long NEWS_ID = 1L;
+    private static final long USER_ID = 2L;
+
+    private final OwnerIdCache ownerIdCache = new OwnerIdCache(Duration.ofMinutes(1), 100);
+    private final AtomicInteger loaderCalls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void ownerOfCommittedReadIsCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        findNewsOwner();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(findNewsOwner()).contains(USER_ID);
+        assertThat(loaderCalls).hasValue(1);
+    }
+
+    @Test
+    void ownerOfRolledBackReadIsNotCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        findNewsOwner();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        findNewsOwner();
+
+        assertThat(loaderCalls).hasValue(2);
+    }
+
+    @Test
+    void newsDeletionEvictsOwner() {
+        findNewsOwner();
+
+        ownerIdCache.onNewsChanged(new NewsChangedEvent(NEWS_ID, USER_ID, ChangeType.DELETED));
+        findNewsOwner();
+
+        assertThat(loaderCalls).hasValue(2);
+    }
+
+    @Test
+    void userDeletionEvictsOwnerOfItsNews() {
+        findNewsOwner();
+
+        ownerIdCache.onUserDeleted(new UserDeletedEvent(USER_ID));
+        findNewsOwner();
+
+        assertThat(loaderCalls).hasValue(2);
+    }
+
+    @Test
+    void deletionOfOtherUserKeepsOwner() {
+        findNewsOwner();
+
+        ownerIdCache.onUserDeleted(new UserDeletedEvent(USER_ID + 1));
+        findNewsOwner();
+
+        assertThat(loaderCalls).hasValue(1);
+    }
+
+    private Optional<Long> findNewsOwner() {
+        return ownerIdCache.findOwnerId(News.class, NEWS_ID, () -> {
+            loaderCalls.incrementAndGet();
+            return Optional.of(USER_ID);
+        });
+    }
+}
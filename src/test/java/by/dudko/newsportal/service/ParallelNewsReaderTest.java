@@ -0,0 +1,154 @@
+package by.dudko.newsportal.service;
+
+import by.dudko.newsportal.datasource.PrimaryReads;
+import by.dudko.newsportal.dto.comment.CommentReadDto;
+import by.dudko.newsportal.dto.news.NewsReadDto;
+import by.dudko.newsportal.exception.EntityNotFoundException;
+import by.dudko.newsportal.mapper.CommentMapper;
+import by.dudko.newsportal.mapper.NewsMapper;
+import by.dudko.newsportal.model.News;
+import by.dudko.newsportal.repository.CommentRepository;
+import by.dudko.newsportal.repository.NewsRepository;
+import by.dudko.newsportal.repository.projection.CommentView;
+import by.dudko.newsportal.service.impl.CommentPageCache;
+import by.dudko.newsportal.service.impl.ParallelNewsReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ParallelNewsReaderTest {
+    private static final long NEWS_ID = 1L;
+
+    @Mock
+    private NewsRepository newsRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private NewsMapper newsMapper;
+
+    @Mock
+    private CommentMapper commentMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final CommentPageCache commentPageCache = new CommentPageCache(
+            new PrimaryReads(mock(PlatformTransactionManager.class), false), true, Duration.ofMinutes(1), 100);
+
+    private ParallelNewsReader parallelNewsReader;
+
+    @BeforeEach
+    void setUp() {
+        parallelNewsReader = new ParallelNewsReader(newsRepository, commentRepository, newsMapper, commentMapper,
+                commentPageCache, transactionManager, true, 3, 3, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelNewsReader.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void findByIdWithComments() {
+        Pageable pageable = Pageable.ofSize(2);
+        News news = News.builder()
+                .id(NEWS_ID)
+                .build();
+        NewsReadDto newsReadDto = NewsReadDto.builder()
+                .id(NEWS_ID)
+                .commentCount(5)
+                .build();
+        CommentView commentView = mock(CommentView.class);
+        CommentReadDto commentReadDto = CommentReadDto.builder()
+                .id(1L)
+                .build();
+        when(newsRepository.findById(NEWS_ID))
+                .thenReturn(Optional.of(news));
+        when(newsMapper.toReadDto(news))
+                .thenReturn(newsReadDto);
+        when(commentRepository.findAllViewsByNewsId(NEWS_ID, pageable))
+                .thenReturn(List.of(commentView, commentView));
+        when(commentMapper.toReadDto(commentView))
+                .thenReturn(commentReadDto);
+
+        NewsReadDto result = parallelNewsReader.findByIdWithComments(NEWS_ID, pageable);
+
+        assertThat(result.getComments().getContent()).containsExactly(commentReadDto, commentReadDto);
+        assertThat(result.getComments().getMetadata().getTotalElements()).isEqualTo(5);
+        assertThat(result.getComments().getMetadata().getTotalPages()).isEqualTo(3);
+        verify(transactionManager, times(2)).commit(any()); // one read-only transaction per query
+        verify(commentRepository, never()).countByNewsId(anyLong()); // the total comes with the news row
+    }
+
+    @Test
+    void findByIdWithCommentsWithNonExistentNewsId() {
+        when(newsRepository.findById(NEWS_ID))
+                .thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class,
+                () -> parallelNewsReader.findByIdWithComments(NEWS_ID, Pageable.unpaged()));
+        verify(commentRepository, never()).countByNewsId(anyLong());
+    }
+
+    @Test
+    void findByIdWithCommentsPropagatesSecurityContext() {
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated("journalist", null,
+                List.of());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        News news = News.builder()
+                .id(NEWS_ID)
+                .build();
+        when(newsRepository.findById(NEWS_ID))
+                .thenReturn(Optional.of(news));
+        when(newsMapper.toReadDto(news))
+                .thenReturn(NewsReadDto.builder()
+                        .id(NEWS_ID)
+                        .build());
+        AtomicReference<Authentication> workerAuthentication = new AtomicReference<>();
+        when(commentRepository.findAllViewsByNewsId(NEWS_ID, Pageable.unpaged()))
+                .thenAnswer(invocation -> {
+                    workerAuthentication.set(SecurityContextHolder.getContext().getAuthentication());
+                    return List.<CommentView>of();
+                });
+
+        parallelNewsReader.findByIdWithComments(NEWS_ID, Pageable.unpaged());
+
+        assertThat(workerAuthentication).hasValue(authentication);
+    }
+
+    @Test
+    void isEnabled() {
+        ParallelNewsReader disabledReader = new ParallelNewsReader(newsRepository, commentRepository, newsMapper,
+                commentMapper, commentPageCache, transactionManager, false, 3, 3, 10);
+
+        assertThat(parallelNewsReader.isEnabled()).isTrue();
+        assertThat(disabledReader.isEnabled()).isFalse();
+    }
+}
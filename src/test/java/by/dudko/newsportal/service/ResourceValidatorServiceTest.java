@@ -0,0 +1,130 @@
+package by.dudko.newsportal.service;
+
+import by.dudko.newsportal.datasource.PrimaryReads;
+import by.dudko.newsportal.dto.ResourceValidator;
+import by.dudko.newsportal.event.ChangeType;
+import by.dudko.newsportal.event.CommentChangedEvent;
+import by.dudko.newsportal.event.NewsChangedEvent;
+import by.dudko.newsportal.repository.CommentRepository;
+import by.dudko.newsportal.repository.NewsRepository;
+import by.dudko.newsportal.repository.projection.CommentValidatorView;
+import by.dudko.newsportal.repository.projection.NewsValidatorView;
+import by.dudko.newsportal.service.impl.ResourceValidatorServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceValidatorServiceTest {
+    private static final long NEWS_ID = 1L;
+    private static final long COMMENT_ID = 2L;
+    private static final long USER_ID = 3L;
+    private static final long VERSION = 4L;
+    private static final Instant LAST_EDIT_DATE = Instant.parse("2019-01-01T12:00:00Z");
+
+    @Mock
+    private NewsRepository newsRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    private ResourceValidatorServiceImpl resourceValidatorService;
+
+    @BeforeEach
+    void setUp() {
+        resourceValidatorService = new ResourceValidatorServiceImpl(newsRepository, commentRepository,
+                new PrimaryReads(mock(PlatformTransactionManager.class), false), Duration.ofMinutes(10), 100);
+    }
+
+    @Test
+    void findNewsValidatorIsCached() {
+        when(newsRepository.findValidatorViewById(NEWS_ID))
+                .thenReturn(Optional.of(newsValidatorView(2)));
+
+        Optional<ResourceValidator> first = resourceValidatorService.findNewsValidator(NEWS_ID);
+        Optional<ResourceValidator> second = resourceValidatorService.findNewsValidator(NEWS_ID);
+
+        assertThat(first).isPresent().isEqualTo(second);
+        assertThat(first.get().lastModified()).isNull();
+        verify(newsRepository).findValidatorViewById(NEWS_ID);
+        verifyNoMoreInteractions(newsRepository, commentRepository);
+    }
+
+    @Test
+    void commentChangeEvictsNewsValidator() {
+        when(newsRepository.findValidatorViewById(NEWS_ID))
+                .thenReturn(Optional.of(newsValidatorView(2)), Optional.of(newsValidatorView(3)));
+
+        String before = resourceValidatorService.findNewsValidator(NEWS_ID).orElseThrow().eTag();
+        resourceValidatorService.onCommentChanged(new CommentChangedEvent(COMMENT_ID, NEWS_ID, USER_ID,
+                ChangeType.CREATED));
+        String after = resourceValidatorService.findNewsValidator(NEWS_ID).orElseThrow().eTag();
+
+        assertThat(after).isNotEqualTo(before);
+        verify(newsRepository, times(2)).findValidatorViewById(NEWS_ID);
+    }
+
+    @Test
+    void newsDeletionEvictsCommentValidators() {
+        when(commentRepository.findValidatorViewById(COMMENT_ID))
+                .thenReturn(Optional.of(commentValidatorView()));
+
+        resourceValidatorService.findCommentValidator(COMMENT_ID);
+        resourceValidatorService.onNewsChanged(new NewsChangedEvent(NEWS_ID, USER_ID, ChangeType.DELETED));
+        resourceValidatorService.findCommentValidator(COMMENT_ID);
+
+        verify(commentRepository, times(2)).findValidatorViewById(COMMENT_ID);
+    }
+
+    @Test
+    void findCommentValidatorUsesVersionAsETag() {
+        when(commentRepository.findValidatorViewById(COMMENT_ID))
+                .thenReturn(Optional.of(commentValidatorView()));
+
+        Optional<ResourceValidator> validator = resourceValidatorService.findCommentValidator(COMMENT_ID);
+
+        assertThat(validator).hasValueSatisfying(value -> {
+            assertThat(value.eTag()).isEqualTo(String.valueOf(VERSION));
+            assertThat(value.lastModifiedMillis()).isEqualTo(LAST_EDIT_DATE.toEpochMilli());
+        });
+    }
+
+    @Test
+    void findValidatorOfNonExistentResource() {
+        when(commentRepository.findValidatorViewById(COMMENT_ID))
+                .thenReturn(Optional.empty());
+
+        assertThat(resourceValidatorService.findCommentValidator(COMMENT_ID)).isEmpty();
+        assertThat(resourceValidatorService.findCommentValidator(COMMENT_ID)).isEmpty();
+        verify(commentRepository, times(2)).findValidatorViewById(COMMENT_ID);
+    }
+
+    private static CommentValidatorView commentValidatorView() {
+        CommentValidatorView view = mock(CommentValidatorView.class);
+        when(view.getVersion()).thenReturn(VERSION);
+        when(view.getLastEditDate()).thenReturn(LAST_EDIT_DATE);
+        return view;
+    }
+
+    private static NewsValidatorView newsValidatorView(long commentCount) {
+        NewsValidatorView view = mock(NewsValidatorView.class);
+        when(view.getVersion()).thenReturn(VERSION);
+        when(view.getCommentCount()).thenReturn(commentCount);
+        when(view.getLastCommentEditDate()).thenReturn(LAST_EDIT_DATE);
+        return view;
+    }
+}
@@ -4,22 +4,28 @@ import by.dudko.newsportal.dto.PageResponse;
 import by.dudko.newsportal.dto.user.UserChangePasswordDto;
 import by.dudko.newsportal.dto.user.UserCreateEditDto;
 import by.dudko.newsportal.dto.user.UserReadDto;
+import by.dudko.newsportal.event.UserDeletedEvent;
 import by.dudko.newsportal.exception.EntityNotFoundException;
+import by.dudko.newsportal.exception.PreconditionFailedException;
 import by.dudko.newsportal.exception.UniqueConstraintViolationException;
 import by.dudko.newsportal.mapper.UserMapper;
 import by.dudko.newsportal.model.User;
 import by.dudko.newsportal.repository.NewsRepository;
 import by.dudko.newsportal.repository.UserRepository;
+import by.dudko.newsportal.security.AuthenticationCache;
 import by.dudko.newsportal.service.impl.UserServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.List;
 import java.util.Optional;
@@ -31,6 +37,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -38,6 +45,7 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
     private static final long USER_ID = 1L;
+    private static final int NEWS_DELETION_CHUNK_SIZE = 2;
 
     @Mock
     private UserRepository userRepository;
@@ -51,9 +59,20 @@ class UserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private AuthenticationCache authenticationCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserServiceImpl userService;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userService, "newsDeletionChunkSize", NEWS_DELETION_CHUNK_SIZE);
+    }
+
     @Test
     void findAll() {
         User user = new User();
@@ -149,6 +168,8 @@ class UserServiceTest {
                 .thenReturn(true);
         when(userMapper.toUser(newUserInfo, user))
                 .thenReturn(user);
+        when(userRepository.saveAndFlush(user))
+                .thenReturn(user);
         UserReadDto updatedUser = UserReadDto.builder()
                 .id(USER_ID)
                 .username(newUsername)
@@ -159,7 +180,22 @@ class UserServiceTest {
         UserReadDto result = userService.updateById(USER_ID, newUserInfo);
 
         assertThat(result).isEqualTo(updatedUser);
-        verifyNoMoreInteractions(userRepository, newsRepository, userMapper, passwordEncoder);
+        verify(authenticationCache).evict(USER_ID);
+        verifyNoMoreInteractions(userRepository, newsRepository, userMapper, passwordEncoder, authenticationCache);
+    }
+
+    @Test
+    void updateByIdWithStaleVersion() {
+        UserCreateEditDto newUserInfo = UserCreateEditDto.builder()
+                .username("Ivan")
+                .build();
+        User user = new User();
+        user.setVersion(2);
+        when(userRepository.findById(USER_ID))
+                .thenReturn(Optional.of(user));
+
+        assertThrows(PreconditionFailedException.class, () -> userService.updateById(USER_ID, newUserInfo, 1));
+        verifyNoMoreInteractions(userRepository, newsRepository, userMapper, passwordEncoder, authenticationCache);
     }
 
     @Test
@@ -205,7 +241,8 @@ class UserServiceTest {
 
         assertTrue(userService.changePassword(USER_ID, changePasswordDto));
         verify(passwordEncoder).encode(newPassword);
-        verifyNoMoreInteractions(userRepository, newsRepository, userMapper, passwordEncoder);
+        verify(authenticationCache).evict(USER_ID);
+        verifyNoMoreInteractions(userRepository, newsRepository, userMapper, passwordEncoder, authenticationCache);
     }
 
     @Test
@@ -233,7 +270,7 @@ class UserServiceTest {
                 .thenReturn(false);
 
         assertFalse(userService.changePassword(USER_ID, changePasswordDto));
-        verifyNoMoreInteractions(userRepository, newsRepository, userMapper, passwordEncoder);
+        verifyNoMoreInteractions(userRepository, newsRepository, userMapper, passwordEncoder, authenticationCache);
     }
 
     @Test
@@ -241,15 +278,16 @@ class UserServiceTest {
         User user = new User();
         when(userRepository.findById(USER_ID))
                 .thenReturn(Optional.of(user));
-        List<Long> newsIds = List.of(1L, 2L, 3L);
-        when(newsRepository.findAllNewsIdByOwnerId(USER_ID))
-                .thenReturn(newsIds);
+        when(newsRepository.markDeletedChunkByOwnerId(USER_ID, NEWS_DELETION_CHUNK_SIZE))
+                .thenReturn(NEWS_DELETION_CHUNK_SIZE, 3);
 
         assertDoesNotThrow(() -> userService.deleteById(USER_ID));
         verify(userRepository).delete(user);
-        verify(newsRepository).deleteAllByIdInBatch(newsIds);
+        verify(authenticationCache).evict(USER_ID);
+        verify(newsRepository, times(2)).markDeletedChunkByOwnerId(USER_ID, NEWS_DELETION_CHUNK_SIZE);
         verify(userRepository).flush();
-        verifyNoMoreInteractions(userRepository, newsRepository, userMapper, passwordEncoder);
+        verify(eventPublisher).publishEvent(new UserDeletedEvent(USER_ID));
+        verifyNoMoreInteractions(userRepository, newsRepository, userMapper, passwordEncoder, eventPublisher);
     }
 
     @Test
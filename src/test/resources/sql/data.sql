@@ -230,4 +230,4 @@ VALUES (1, 'comment text1', '2021-04-15 04:04:50', '2021-04-15 04:04:50', 1, 1),
        (199, 'comment text199', '2020-01-15 08:01:44', '2020-01-15 08:01:44', 3, 20),
        (200, 'comment text200', '2020-01-22 08:01:44', '2020-01-22 08:01:44', 1, 20);
 SELECT SETVAL('comments_id_seq', (SELECT MAX(id) FROM comments));
-
+UPDATE news n SET comment_count = (SELECT count(*) FROM comments c WHERE c.news_id = n.id);